@@ -0,0 +1,44 @@
+package dat.benchmarks;
+
+import dat.entities.Hotel;
+import dat.entities.Room;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Detached hotels with ids set, shaped like what the DAO hands to the controllers
+class BenchmarkData
+{
+    static List<Hotel> hotels(int hotelCount, int roomsPerHotel)
+    {
+        List<Hotel> hotels = new ArrayList<>(hotelCount);
+        long roomId = 1;
+        for (long hotelId = 1; hotelId <= hotelCount; hotelId++)
+        {
+            Hotel hotel = new Hotel("Hotel " + hotelId, "Street " + hotelId + ", 2800 Lyngby");
+            hotel.setId(hotelId);
+            hotel.setVersion(0L);
+            for (int i = 0; i < roomsPerHotel; i++)
+            {
+                Room room = new Room(String.valueOf(100 + i));
+                room.setId(roomId++);
+                room.setPrice(500 + i * 25);
+                hotel.addRoom(room);
+            }
+            hotels.add(hotel);
+        }
+        return hotels;
+    }
+
+    static Hotel newHotel(int roomsPerHotel)
+    {
+        Hotel hotel = new Hotel("Benchmark hotel", "Benchmark street 1");
+        for (int i = 0; i < roomsPerHotel; i++)
+        {
+            Room room = new Room(String.valueOf(100 + i));
+            room.setPrice(500 + i * 25);
+            hotel.addRoom(room);
+        }
+        return hotel;
+    }
+}
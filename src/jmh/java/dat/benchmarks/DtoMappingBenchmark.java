@@ -0,0 +1,60 @@
+package dat.benchmarks;
+
+import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark
+{
+    @Param({"10", "100"})
+    private int roomsPerHotel;
+
+    private Hotel hotel;
+    private Room room;
+    private HotelDTO hotelDTO;
+    private List<Hotel> hotels;
+
+    @Setup
+    public void setup()
+    {
+        hotels = BenchmarkData.hotels(100, roomsPerHotel);
+        hotel = hotels.get(0);
+        room = hotel.getRooms().get(0);
+        hotelDTO = new HotelDTO(hotel);
+    }
+
+    @Benchmark
+    public RoomDTO roomToDto()
+    {
+        return new RoomDTO(room);
+    }
+
+    @Benchmark
+    public HotelDTO hotelToDto()
+    {
+        return new HotelDTO(hotel);
+    }
+
+    @Benchmark
+    public List<HotelDTO> hotelListToDtos()
+    {
+        return hotels.stream().map(HotelDTO::new).toList();
+    }
+
+    @Benchmark
+    public Hotel dtoToHotel()
+    {
+        return new Hotel(hotelDTO);
+    }
+}
@@ -0,0 +1,82 @@
+package dat.benchmarks;
+
+import dat.config.HibernateConfig;
+import dat.dao.GenericDAO;
+import dat.entities.Hotel;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+// Runs against an in-memory H2 database, so the numbers show the cost of Hibernate and the DAO rather than the network.
+// Good for comparing builds, not for predicting latencies against PostgreSQL.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GenericDaoBenchmark
+{
+    private static final int HOTEL_COUNT = 1000;
+
+    private EntityManagerFactory emf;
+    private GenericDAO dao;
+    private List<Hotel> hotels;
+    private final AtomicLong next = new AtomicLong();
+
+    @Setup
+    public void setup()
+    {
+        Properties props = new Properties();
+        props.put("hibernate.connection.driver_class", "org.h2.Driver");
+        props.put("hibernate.connection.url", "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        props.put("hibernate.connection.username", "sa");
+        props.put("hibernate.connection.password", "");
+        props.put("hibernate.hbm2ddl.auto", "create-drop");
+        emf = HibernateConfig.createEntityManagerFactory(props);
+        dao = new GenericDAO(emf);
+        hotels = dao.create(IntStream.range(0, HOTEL_COUNT).mapToObj(i -> BenchmarkData.newHotel(10)).toList());
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        emf.close();
+    }
+
+    @Benchmark
+    public Hotel create()
+    {
+        return dao.create(BenchmarkData.newHotel(10));
+    }
+
+    @Benchmark
+    public Hotel getById()
+    {
+        return dao.getById(Hotel.class, nextHotel().getId());
+    }
+
+    @Benchmark
+    public List<Hotel> getPage()
+    {
+        return dao.getPage(Hotel.class, nextHotel().getId(), 50);
+    }
+
+    @Benchmark
+    public Hotel update()
+    {
+        Hotel hotel = dao.getById(Hotel.class, nextHotel().getId());
+        hotel.setAddress("Street " + next.get());
+        return dao.update(hotel);
+    }
+
+    private Hotel nextHotel()
+    {
+        return hotels.get((int) (next.getAndIncrement() % HOTEL_COUNT));
+    }
+}
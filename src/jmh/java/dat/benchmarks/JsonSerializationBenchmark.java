@@ -0,0 +1,53 @@
+package dat.benchmarks;
+
+import dat.dto.HotelDTO;
+import dat.metrics.TimedJsonMapper;
+import io.javalin.json.JavalinJackson;
+import io.javalin.json.JsonMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The same mappers ctx.json() goes through in ApplicationConfig, without the HTTP layer around them
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark
+{
+    @Param({"100", "1000"})
+    private int hotelCount;
+
+    private final JsonMapper jackson = new JavalinJackson();
+    private final JsonMapper timed = new TimedJsonMapper(new JavalinJackson());
+    private List<HotelDTO> summaries;
+    private List<HotelDTO> withRooms;
+
+    @Setup
+    public void setup()
+    {
+        withRooms = BenchmarkData.hotels(hotelCount, 10).stream().map(HotelDTO::new).toList();
+        summaries = withRooms.stream().map(h -> new HotelDTO(h.getId(), h.getName(), h.getAddress())).toList();
+    }
+
+    @Benchmark
+    public String hotelSummaries()
+    {
+        return jackson.toJsonString(summaries, List.class);
+    }
+
+    @Benchmark
+    public String hotelsWithRooms()
+    {
+        return jackson.toJsonString(withRooms, List.class);
+    }
+
+    @Benchmark
+    public String hotelsWithRoomsTimed()
+    {
+        return timed.toJsonString(withRooms, List.class);
+    }
+}
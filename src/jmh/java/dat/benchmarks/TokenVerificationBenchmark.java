@@ -0,0 +1,56 @@
+package dat.benchmarks;
+
+import dat.config.AppSettings;
+import dat.controllers.SecurityController;
+import dat.security.HashingExecutor;
+import dat.security.LoginThrottle;
+import dat.security.TokenCache;
+import dk.bugelhartmann.TokenSecurity;
+import dk.bugelhartmann.UserDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// What SecurityController does for each request with a bearer token: the full check the first time a token is seen,
+// and a cache lookup after that. Both go through the controller's own methods.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenVerificationBenchmark
+{
+    private static final String SECRET = "benchmark-secret-that-is-long-enough-for-hs256";
+    private static final String ISSUER = "benchmark";
+    private static final String EXPIRE_TIME = "3600000";
+
+    private SecurityController securityController;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception
+    {
+        AppSettings settings = new AppSettings(Map.of("SECRET_KEY", SECRET, "ISSUER", ISSUER, "TOKEN_EXPIRE_TIME", EXPIRE_TIME));
+        // Token checks never reach the database, so there is no DAO
+        securityController = new SecurityController(null, new TokenCache(10000, Duration.ofHours(1)), () -> settings,
+                new HashingExecutor(1, 1), new LoginThrottle(1, 1, 60_000));
+        token = new TokenSecurity().createToken(new UserDTO("benchmark", Set.of("USER", "ADMIN")), ISSUER, EXPIRE_TIME, SECRET);
+        securityController.getUserFromToken(token);
+    }
+
+    @Benchmark
+    public UserDTO verifyUncached()
+    {
+        return securityController.verifyToken(token);
+    }
+
+    @Benchmark
+    public UserDTO verifyCached()
+    {
+        return securityController.getUserFromToken(token);
+    }
+}
@@ -0,0 +1,93 @@
+package dat.loadtest;
+
+import dat.config.AppSettings;
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.controllers.BookingController;
+import dat.controllers.HotelController;
+import dat.controllers.RoomController;
+import dat.controllers.SecurityController;
+import dat.controllers.StatusController;
+import dat.dao.BookingDAO;
+import dat.dao.HotelDAO;
+import dat.dao.SecurityDAO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.metrics.MetricsRegistry;
+import dat.routes.Routes;
+import dat.security.HashingExecutor;
+import dat.security.LoginThrottle;
+import dat.security.TokenCache;
+import jakarta.persistence.EntityManagerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+// The application as Main wires it, but on an in-memory H2 database in PostgreSQL mode, so a load test needs no
+// database server. All load comes from one address and a few users, so rate limiting is left out and the login
+// throttle is turned off; otherwise most logins in the default mix would get a 429 and skew the results.
+class EmbeddedServer
+{
+    private static final int SEED_CHUNK_SIZE = 500;
+
+    static void start(int port, int hotels, int roomsPerHotel)
+    {
+        EntityManagerFactory emf = HibernateConfig.createEntityManagerFactory(h2Properties());
+        HotelDAO hotelDAO = new HotelDAO(emf);
+        seed(hotelDAO, hotels, roomsPerHotel);
+
+        SecurityController securityController = new SecurityController(new SecurityDAO(emf), TokenCache.getInstance(),
+                AppSettings::getInstance, HashingExecutor.getInstance(), new LoginThrottle(Integer.MAX_VALUE, Integer.MAX_VALUE, 60_000));
+        Routes routes = new Routes(new HotelController(hotelDAO), new RoomController(emf),
+                new BookingController(new BookingDAO(emf), hotelDAO), securityController, new StatusController(emf));
+        ApplicationConfig
+                .getInstance()
+                .initiateServer()
+                .setRoute(routes.getRoutes())
+                .handleException()
+                .setApiExceptionHandling()
+                .recordMetrics(MetricsRegistry.getInstance())
+                .addServerTiming()
+                .checkSecurityRoles(securityController)
+                .startServer(port);
+    }
+
+    static void stop()
+    {
+        ApplicationConfig.getInstance().stopServer();
+    }
+
+    private static Properties h2Properties()
+    {
+        Properties props = new Properties();
+        props.put("hibernate.connection.driver_class", "org.h2.Driver");
+        props.put("hibernate.connection.url", "jdbc:h2:mem:loadtest;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        props.put("hibernate.connection.username", "sa");
+        props.put("hibernate.connection.password", "");
+        props.put("hibernate.connection.pool_size", "20");
+        props.put("hibernate.hbm2ddl.auto", "create-drop");
+        return props;
+    }
+
+    private static void seed(HotelDAO hotelDAO, int hotels, int roomsPerHotel)
+    {
+        List<Hotel> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int h = 1; h <= hotels; h++)
+        {
+            Hotel hotel = new Hotel("Hotel " + h, "Street " + h);
+            for (int r = 0; r < roomsPerHotel; r++)
+            {
+                Room room = new Room(String.valueOf(100 + r));
+                room.setPrice(400 + (h * 37 + r * 13) % 1600);
+                hotel.addRoom(room);
+            }
+            chunk.add(hotel);
+            if (chunk.size() == SEED_CHUNK_SIZE || h == hotels)
+            {
+                hotelDAO.createHotels(chunk);
+                chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+            }
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package dat.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Keeps every sample per operation, so percentiles are exact. A run of a few minutes is at most a few million longs.
+class LatencyRecorder
+{
+    static final double[] PERCENTILES = {50, 95, 99, 99.9};
+    private final Map<String, Samples> operations = new ConcurrentHashMap<>();
+
+    // Latency is measured from when the request should have been sent, service time from when it actually was
+    void record(String operation, int status, long latencyNanos, long serviceNanos)
+    {
+        operations.computeIfAbsent(operation, name -> new Samples()).add(status, latencyNanos, serviceNanos);
+    }
+
+    Map<String, Summary> summarize(double seconds)
+    {
+        Map<String, Summary> summaries = new TreeMap<>();
+        operations.forEach((name, samples) -> summaries.put(name, samples.summarize(seconds)));
+        return summaries;
+    }
+
+    record Summary(long count, double throughput, Map<String, Long> statuses,
+                   Map<String, Double> latencyMillis, Map<String, Double> serviceTimeMillis) {}
+
+    private static class Samples
+    {
+        private long[] latencies = new long[1024];
+        private long[] serviceTimes = new long[1024];
+        private int count;
+        private final Map<String, Long> statuses = new TreeMap<>();
+
+        synchronized void add(int status, long latencyNanos, long serviceNanos)
+        {
+            if (count == latencies.length)
+            {
+                latencies = Arrays.copyOf(latencies, count * 2);
+                serviceTimes = Arrays.copyOf(serviceTimes, count * 2);
+            }
+            latencies[count] = latencyNanos;
+            serviceTimes[count] = serviceNanos;
+            count++;
+            // 0 means the request failed without a response
+            statuses.merge(status == 0 ? "error" : status / 100 + "xx", 1L, Long::sum);
+        }
+
+        synchronized Summary summarize(double seconds)
+        {
+            return new Summary(count, count / seconds, new TreeMap<>(statuses),
+                    percentiles(Arrays.copyOf(latencies, count)), percentiles(Arrays.copyOf(serviceTimes, count)));
+        }
+
+        private static Map<String, Double> percentiles(long[] nanos)
+        {
+            Arrays.sort(nanos);
+            Map<String, Double> values = new LinkedHashMap<>();
+            for (double percentile : PERCENTILES)
+            {
+                values.put("p" + format(percentile), toMillis(valueAt(nanos, percentile)));
+            }
+            values.put("max", toMillis(nanos.length == 0 ? 0 : nanos[nanos.length - 1]));
+            return values;
+        }
+
+        // Nearest rank
+        private static long valueAt(long[] sorted, double percentile)
+        {
+            if (sorted.length == 0)
+            {
+                return 0;
+            }
+            int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+            return sorted[Math.max(rank, 1) - 1];
+        }
+
+        private static String format(double percentile)
+        {
+            return percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile).replace(".", "");
+        }
+
+        private static double toMillis(long nanos)
+        {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dat.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Drives a mix of hotel reads, room listings, logins and creates at a fixed rate and reports throughput and latency
+// percentiles per operation. See the readme for the options.
+public class LoadTest
+{
+    private static final String PASSWORD = "loadtest-password";
+    private static final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    public static void main(String[] args) throws Exception
+    {
+        LoadTestOptions options = LoadTestOptions.fromSystemProperties();
+        if (options.embedded())
+        {
+            System.out.printf("Starting embedded server with %d hotels of %d rooms%n", options.hotels(), options.roomsPerHotel());
+            EmbeddedServer.start(options.port(), options.hotels(), options.roomsPerHotel());
+        }
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        try
+        {
+            List<String> usernames = registerUsers(client, options);
+            List<Long> hotelIds = fetchHotelIds(client, options.apiUrl());
+            Workload workload = new Workload(options.apiUrl(), options.mix(), hotelIds, usernames, PASSWORD);
+
+            System.out.printf("Sending %.0f requests/s to %s for %d s after %d s of warmup, at most %d at a time%n",
+                    options.rate(), options.apiUrl(), options.durationSeconds(), options.warmupSeconds(), options.concurrency());
+            LatencyRecorder recorder = new OpenLoopRunner(client, workload, options.seed())
+                    .run(options.rate(), options.concurrency(), options.warmupSeconds(), options.durationSeconds());
+
+            Map<String, LatencyRecorder.Summary> summaries = recorder.summarize(options.durationSeconds());
+            print(summaries);
+            write(options, summaries);
+        }
+        finally
+        {
+            if (options.embedded())
+            {
+                EmbeddedServer.stop();
+            }
+        }
+        System.exit(0);
+    }
+
+    // Already registered users are fine, so the same users can be reused against a running server
+    private static List<String> registerUsers(HttpClient client, LoadTestOptions options) throws IOException, InterruptedException
+    {
+        List<String> usernames = new ArrayList<>();
+        for (int i = 1; i <= options.users(); i++)
+        {
+            String username = "loadtest-user-" + i;
+            HttpResponse<String> response = client.send(Workload.post(options.apiUrl() + "/auth/register",
+                    "{\"username\": \"" + username + "\", \"password\": \"" + PASSWORD + "\"}"), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201 && response.statusCode() != 422)
+            {
+                throw new IllegalStateException("Could not register " + username + ": " + response.statusCode() + " " + response.body());
+            }
+            usernames.add(username);
+        }
+        return usernames;
+    }
+
+    private static List<Long> fetchHotelIds(HttpClient client, String apiUrl) throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = client.send(Workload.get(apiUrl + "/hotel?stream=true"), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200)
+        {
+            throw new IllegalStateException("Could not list hotels: " + response.statusCode() + " " + response.body());
+        }
+        List<Long> ids = new ArrayList<>();
+        for (JsonNode hotel : objectMapper.readTree(response.body()))
+        {
+            ids.add(hotel.get("id").asLong());
+        }
+        return ids;
+    }
+
+    private static void print(Map<String, LatencyRecorder.Summary> summaries)
+    {
+        System.out.println();
+        System.out.printf("%-8s %8s %9s %9s %9s %9s %9s %9s  %s%n",
+                "", "count", "req/s", "p50 ms", "p95 ms", "p99 ms", "p99.9 ms", "max ms", "statuses");
+        summaries.forEach((name, summary) -> {
+            Map<String, Double> latency = summary.latencyMillis();
+            System.out.printf("%-8s %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f  %s%n", name, summary.count(), summary.throughput(),
+                    latency.get("p50"), latency.get("p95"), latency.get("p99"), latency.get("p999"), latency.get("max"),
+                    summary.statuses());
+        });
+        System.out.println("Latencies are measured from the scheduled send time. Service times are in the JSON result.");
+    }
+
+    private static void write(LoadTestOptions options, Map<String, LatencyRecorder.Summary> summaries) throws IOException
+    {
+        Map<String, Object> settings = new LinkedHashMap<>();
+        settings.put("url", options.apiUrl());
+        settings.put("embedded", options.embedded());
+        settings.put("rate", options.rate());
+        settings.put("concurrency", options.concurrency());
+        settings.put("warmupSeconds", options.warmupSeconds());
+        settings.put("durationSeconds", options.durationSeconds());
+        settings.put("mix", options.mix());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("options", settings);
+        result.put("operations", summaries);
+        if (options.output().getParent() != null)
+        {
+            Files.createDirectories(options.output().getParent());
+        }
+        objectMapper.writeValue(options.output().toFile(), result);
+        System.out.println("Written to " + options.output());
+    }
+}
@@ -0,0 +1,55 @@
+package dat.loadtest;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Read from -D system properties, e.g. mvn -Ploadtest test-compile exec:java -Dloadtest.rate=500
+record LoadTestOptions(String baseUrl, int port, double rate, int concurrency, int warmupSeconds, int durationSeconds,
+                       Map<String, Integer> mix, int hotels, int roomsPerHotel, int users, long seed, Path output)
+{
+    private static final String DEFAULT_MIX = "hotels:30,hotel:35,rooms:20,login:10,create:5";
+
+    static LoadTestOptions fromSystemProperties()
+    {
+        return new LoadTestOptions(
+                System.getProperty("loadtest.url"),
+                Integer.getInteger("loadtest.port", 7090),
+                Double.parseDouble(System.getProperty("loadtest.rate", "200")),
+                Integer.getInteger("loadtest.concurrency", 64),
+                Integer.getInteger("loadtest.warmup", 10),
+                Integer.getInteger("loadtest.duration", 60),
+                parseMix(System.getProperty("loadtest.mix", DEFAULT_MIX)),
+                Integer.getInteger("loadtest.hotels", 1000),
+                Integer.getInteger("loadtest.rooms", 20),
+                Integer.getInteger("loadtest.users", 20),
+                Long.getLong("loadtest.seed", 42),
+                Path.of(System.getProperty("loadtest.output", "target/loadtest-result.json")));
+    }
+
+    // Without a url an embedded server with an in-memory database is started and seeded
+    boolean embedded()
+    {
+        return baseUrl == null || baseUrl.isBlank();
+    }
+
+    String apiUrl()
+    {
+        return embedded() ? "http://localhost:" + port + "/api" : baseUrl;
+    }
+
+    private static Map<String, Integer> parseMix(String mix)
+    {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(","))
+        {
+            String[] nameAndWeight = part.trim().split(":");
+            if (nameAndWeight.length != 2)
+            {
+                throw new IllegalArgumentException("loadtest.mix must look like hotels:30,login:10, got " + mix);
+            }
+            weights.put(nameAndWeight[0].trim(), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+        return weights;
+    }
+}
@@ -0,0 +1,87 @@
+package dat.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Sends requests on a fixed schedule, whether or not earlier ones have come back. Each request's latency is counted
+// from the time it was scheduled for, not from when it was actually sent. When the server stalls, the requests that
+// should have gone out meanwhile are still measured with the stall included (no coordinated omission).
+// The concurrency cap only stops the generator from opening unlimited connections; time spent waiting for it counts too.
+class OpenLoopRunner
+{
+    private final HttpClient client;
+    private final Workload workload;
+    private final Random random;
+
+    OpenLoopRunner(HttpClient client, Workload workload, long seed)
+    {
+        this.client = client;
+        this.workload = workload;
+        this.random = new Random(seed);
+    }
+
+    // Samples from the warmup are dropped
+    LatencyRecorder run(double rate, int concurrency, int warmupSeconds, int durationSeconds) throws InterruptedException
+    {
+        LatencyRecorder recorder = new LatencyRecorder();
+        Semaphore inFlight = new Semaphore(concurrency);
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long i = 0; ; i++)
+        {
+            long intended = start + (long) (i * intervalNanos);
+            if (intended >= end)
+            {
+                break;
+            }
+            sleepUntil(intended);
+            Workload.Operation operation = workload.next(random);
+            inFlight.acquire();
+            long sent = System.nanoTime();
+            try
+            {
+                client.sendAsync(operation.request().apply(random), HttpResponse.BodyHandlers.discarding())
+                        .whenComplete((response, error) -> {
+                            long done = System.nanoTime();
+                            inFlight.release();
+                            if (intended >= measureFrom)
+                            {
+                                recorder.record(operation.name(), error == null ? response.statusCode() : 0, done - intended, done - sent);
+                            }
+                        });
+            }
+            catch (RuntimeException e)
+            {
+                // Building or sending the request failed before it went out, so no callback will release the permit
+                long done = System.nanoTime();
+                inFlight.release();
+                if (intended >= measureFrom)
+                {
+                    recorder.record(operation.name(), 0, done - intended, done - sent);
+                }
+            }
+        }
+        // Wait for the last requests before reporting
+        if (!inFlight.tryAcquire(concurrency, 60, TimeUnit.SECONDS))
+        {
+            System.err.println("Some requests were still running after 60 seconds and are not counted");
+        }
+        return recorder;
+    }
+
+    private static void sleepUntil(long nanoTime)
+    {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0)
+        {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
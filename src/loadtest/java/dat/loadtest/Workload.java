@@ -0,0 +1,91 @@
+package dat.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+// A weighted mix of requests against the seeded hotels and users
+class Workload
+{
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private final List<Operation> operations = new ArrayList<>();
+    private final int totalWeight;
+
+    record Operation(String name, int weight, Function<Random, HttpRequest> request) {}
+
+    Workload(String apiUrl, Map<String, Integer> mix, List<Long> hotelIds, List<String> usernames, String password)
+    {
+        if (hotelIds.isEmpty() || usernames.isEmpty())
+        {
+            throw new IllegalStateException("The workload needs at least one hotel and one user");
+        }
+        int weights = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet())
+        {
+            Function<Random, HttpRequest> request = switch (entry.getKey())
+            {
+                case "hotels" -> random -> get(apiUrl + "/hotel?limit=50&after=" + pick(random, hotelIds));
+                case "hotel" -> random -> get(apiUrl + "/hotel/" + pick(random, hotelIds));
+                case "rooms" -> random -> get(apiUrl + "/hotel/" + pick(random, hotelIds) + "/rooms");
+                case "search" -> random -> {
+                    int minPrice = random.nextInt(1500);
+                    return get(apiUrl + "/rooms?minPrice=" + minPrice + "&maxPrice=" + (minPrice + 200) + "&limit=50");
+                }
+                case "login" -> random -> post(apiUrl + "/auth/login",
+                        "{\"username\": \"" + pick(random, usernames) + "\", \"password\": \"" + password + "\"}");
+                case "create" -> random -> post(apiUrl + "/hotel",
+                        "{\"name\": \"Load test " + random.nextInt(1_000_000) + "\", \"address\": \"Load street 1\"}");
+                default -> throw new IllegalArgumentException("Unknown operation in loadtest.mix: " + entry.getKey()
+                        + ". Known are hotels, hotel, rooms, search, login and create");
+            };
+            if (entry.getValue() > 0)
+            {
+                operations.add(new Operation(entry.getKey(), entry.getValue(), request));
+                weights += entry.getValue();
+            }
+        }
+        if (weights == 0)
+        {
+            throw new IllegalArgumentException("loadtest.mix has no operation with a weight above 0");
+        }
+        totalWeight = weights;
+    }
+
+    Operation next(Random random)
+    {
+        int ticket = random.nextInt(totalWeight);
+        for (Operation operation : operations)
+        {
+            ticket -= operation.weight();
+            if (ticket < 0)
+            {
+                return operation;
+            }
+        }
+        throw new IllegalStateException("Weights do not add up");
+    }
+
+    private static <T> T pick(Random random, List<T> values)
+    {
+        return values.get(random.nextInt(values.size()));
+    }
+
+    static HttpRequest get(String url)
+    {
+        return HttpRequest.newBuilder(URI.create(url)).timeout(REQUEST_TIMEOUT).GET().build();
+    }
+
+    static HttpRequest post(String url, String json)
+    {
+        return HttpRequest.newBuilder(URI.create(url))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+}
@@ -1,10 +1,24 @@
 package dat;
 
+import dat.config.AppSettings;
 import dat.config.ApplicationConfig;
 import dat.config.HibernateConfig;
+import dat.controllers.BookingController;
 import dat.controllers.HotelController;
+import dat.controllers.RoomController;
 import dat.controllers.SecurityController;
+import dat.controllers.StatusController;
+import dat.dao.BookingDAO;
+import dat.dao.DbExecutor;
+import dat.dao.HotelCache;
+import dat.dao.HotelDAO;
+import dat.metrics.MetricsRegistry;
 import dat.routes.Routes;
+import dat.security.HashingExecutor;
+import dat.security.ConcurrencyLimiter;
+import dat.security.LoginThrottle;
+import dat.security.RateLimiter;
+import dat.security.TokenCache;
 import jakarta.persistence.EntityManagerFactory;
 
 
@@ -15,9 +29,36 @@ public class Main
 
     public static void main(String[] args)
     {
-        HotelController hotelController = new HotelController(emf);
-        SecurityController securityController = new SecurityController(emf);
-        Routes routes = new Routes(hotelController, securityController);
+        HotelCache hotelCache = HotelCache.fromSettings();
+        HotelDAO hotelDAO = new HotelDAO(emf, hotelCache);
+        HotelController hotelController = new HotelController(hotelDAO);
+        // Shares the hotel DAO, so room changes reach availability through the same cache
+        BookingController bookingController = new BookingController(new BookingDAO(emf), hotelDAO);
+        TokenCache tokenCache = TokenCache.getInstance();
+        if (AppSettings.getInstance().getBoolean("SETTINGS_HOT_RELOAD", false))
+        {
+            // Tokens signed with an old secret must not stay valid through the cache
+            AppSettings.addReloadListener(settings -> tokenCache.invalidateAll());
+            AppSettings.watchForChanges();
+        }
+        SecurityController securityController = new SecurityController(emf, tokenCache);
+        StatusController statusController = new StatusController(emf)
+                .register("hotelCache", hotelCache::getHotelStats)
+                .register("hotelRoomCache", hotelCache::getRoomStats)
+                .register("hotelListingCache", hotelCache::getListingStats)
+                .register("tokenCache", tokenCache::getStats)
+                .register("passwordHashing", HashingExecutor.getInstance()::getStats)
+                .register("loginThrottle", LoginThrottle.getInstance()::getStats)
+                .register("dbExecutor", DbExecutor.getInstance()::getStats)
+                .register("secondLevelCache", () -> HibernateConfig.getSecondLevelCacheStats(emf))
+                .register("connectionGate", () -> HibernateConfig.getConnectionGateStats(emf))
+                .register("availability", bookingController.getAvailability()::getStats);
+        RateLimiter rateLimiter = RateLimiter.fromSettings();
+        ConcurrencyLimiter concurrencyLimiter = ConcurrencyLimiter.fromSettings();
+        statusController
+                .register("rateLimiter", rateLimiter::getStats)
+                .register("concurrencyLimiter", concurrencyLimiter::getStats);
+        Routes routes = new Routes(hotelController, new RoomController(emf), bookingController, securityController, statusController);
 
         ApplicationConfig
                 .getInstance()
@@ -25,6 +66,9 @@ public class Main
                 .setRoute(routes.getRoutes())
                 .handleException()
                 .setApiExceptionHandling()
+                .recordMetrics(MetricsRegistry.getInstance())
+                .addServerTiming()
+                .limitRequests(rateLimiter, concurrencyLimiter)
                 .checkSecurityRoles()
                 .startServer(7070);
     }
@@ -0,0 +1,184 @@
+package dat.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+// Settings are read once into an immutable snapshot: config.properties first, with environment variables on top.
+// Code that runs per request keeps a reference to the supplier and reads the current snapshot, so a reload is
+// picked up without any I/O on the request path.
+public final class AppSettings
+{
+    private static final String RESOURCE_NAME = "config.properties";
+    private static final Logger logger = LoggerFactory.getLogger(AppSettings.class);
+    private static final AtomicReference<AppSettings> current = new AtomicReference<>();
+    private static final List<Consumer<AppSettings>> reloadListeners = new CopyOnWriteArrayList<>();
+    private static Thread watcher;
+
+    private final Map<String, String> values;
+
+    public AppSettings(Map<String, String> values)
+    {
+        this.values = Map.copyOf(values);
+    }
+
+    public static AppSettings getInstance()
+    {
+        AppSettings settings = current.get();
+        if (settings == null)
+        {
+            current.compareAndSet(null, load());
+            settings = current.get();
+        }
+        return settings;
+    }
+
+    public static AppSettings load()
+    {
+        Map<String, String> values = new HashMap<>();
+        try (InputStream is = AppSettings.class.getClassLoader().getResourceAsStream(RESOURCE_NAME))
+        {
+            if (is != null)
+            {
+                Properties properties = new Properties();
+                properties.load(is);
+                properties.stringPropertyNames().forEach(name -> values.put(name, properties.getProperty(name).trim()));
+            }
+        }
+        catch (IOException e)
+        {
+            logger.error("Could not read {}", RESOURCE_NAME, e);
+        }
+        System.getenv().forEach((name, value) -> values.put(name, value.trim()));
+        return new AppSettings(values);
+    }
+
+    public static void reload()
+    {
+        AppSettings settings = load();
+        current.set(settings);
+        logger.info("Settings reloaded");
+        reloadListeners.forEach(listener -> listener.accept(settings));
+    }
+
+    public static void addReloadListener(Consumer<AppSettings> listener)
+    {
+        reloadListeners.add(listener);
+    }
+
+    // Only settings read per request (token settings) follow a reload. The database settings are used once at startup.
+    public static synchronized void watchForChanges()
+    {
+        URL resource = AppSettings.class.getClassLoader().getResource(RESOURCE_NAME);
+        if (watcher != null || resource == null || !"file".equals(resource.getProtocol()))
+        {
+            return;
+        }
+        try
+        {
+            Path file = Paths.get(resource.toURI());
+            WatchService watchService = file.getFileSystem().newWatchService();
+            file.getParent().register(watchService, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+            watcher = new Thread(() -> watch(watchService, file.getFileName()), "settings-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+            logger.info("Watching {} for changes", file);
+        }
+        catch (Exception e)
+        {
+            logger.error("Could not watch {} for changes", RESOURCE_NAME, e);
+        }
+    }
+
+    private static void watch(WatchService watchService, Path fileName)
+    {
+        try
+        {
+            while (true)
+            {
+                WatchKey key = watchService.take();
+                boolean changed = key.pollEvents().stream().anyMatch(event -> fileName.equals(event.context()));
+                key.reset();
+                if (changed)
+                {
+                    reload();
+                }
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isDeployed()
+    {
+        return values.containsKey("DEPLOYED");
+    }
+
+    public String getSecretKey()
+    {
+        return require("SECRET_KEY");
+    }
+
+    public String getIssuer()
+    {
+        return require("ISSUER");
+    }
+
+    public String getTokenExpireTime()
+    {
+        return require("TOKEN_EXPIRE_TIME");
+    }
+
+    public String get(String name)
+    {
+        String value = values.get(name);
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    public String get(String name, String defaultValue)
+    {
+        String value = get(name);
+        return value == null ? defaultValue : value;
+    }
+
+    public int getInt(String name, int defaultValue)
+    {
+        String value = get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    public long getLong(String name, long defaultValue)
+    {
+        String value = get(name);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue)
+    {
+        String value = get(name);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    public String require(String name)
+    {
+        String value = get(name);
+        if (value == null)
+        {
+            throw new IllegalStateException(String.format("Setting %s is missing. Add it to %s or set it as an environment variable", name, RESOURCE_NAME));
+        }
+        return value;
+    }
+}
@@ -4,20 +4,37 @@ import dat.controllers.ISecurityController;
 import dat.controllers.SecurityController;
 import dat.dto.ErrorMessage;
 import dat.exceptions.ApiException;
+import dat.metrics.MetricsRegistry;
+import dat.metrics.RequestTimings;
+import dat.metrics.TimedJsonMapper;
+import dat.security.ConcurrencyLimiter;
+import dat.security.RateLimiter;
 import io.javalin.Javalin;
 import io.javalin.apibuilder.EndpointGroup;
 import io.javalin.config.JavalinConfig;
+import io.javalin.http.Context;
+import io.javalin.json.JavalinJackson;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.Filter;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.FilterHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 
 public class ApplicationConfig
 {
     private static ApplicationConfig instance;
     private static Javalin app;
     private static JavalinConfig javalinConfig;
+    private static Server jettyServer;
     private static final Logger logger = LoggerFactory.getLogger(ApplicationConfig.class);
-    private static final ISecurityController securityController = new SecurityController();
 
     private ApplicationConfig() {}
 
@@ -39,6 +56,10 @@ public class ApplicationConfig
             config.router.contextPath = "/api";
             config.bundledPlugins.enableRouteOverview("/routes");
             config.bundledPlugins.enableDevLogging();
+            config.jetty.modifyServer(server -> jettyServer = server);
+            config.jsonMapper(new TimedJsonMapper(new JavalinJackson()));
+            // Needs Java 21. Handlers then block on JDBC without holding a platform thread
+            config.useVirtualThreads = AppSettings.getInstance().getBoolean("VIRTUAL_THREADS_ENABLED", false);
         });
         logger.info("Server initiated");
         return instance;
@@ -51,7 +72,101 @@ public class ApplicationConfig
         return instance;
     }
 
+    // Registered first, so the timing covers the other before handlers and rejected requests are counted too
+    public ApplicationConfig recordMetrics(MetricsRegistry metrics) {
+        app.before(ctx -> ctx.attribute("startNanos", System.nanoTime()));
+        app.after(ctx -> {
+            Long startNanos = ctx.attribute("startNanos");
+            if (startNanos != null) {
+                metrics.record(ctx.method().toString(), routeTemplate(ctx), ctx.statusCode(), System.nanoTime() - startNanos);
+            }
+        });
+        logger.info("Metrics recording set");
+        return instance;
+    }
+
+    // Adds a Server-Timing header with DB time, statement count, JSON time and total time, readable in browser dev tools.
+    // The timings are bound in a servlet filter, so they are unbound on the same thread once the servlet returns, also
+    // when an async handler completes later on another thread. Work handed to a BoundedExecutor is still counted.
+    public ApplicationConfig addServerTiming() {
+        javalinConfig.jetty.modifyServletContextHandler(handler -> handler.addFilter(new FilterHolder((Filter) (request, response, chain) -> {
+            RequestTimings timings = new RequestTimings();
+            request.setAttribute("timings", timings);
+            RequestTimings.bind(timings);
+            try {
+                chain.doFilter(request, response);
+            }
+            finally {
+                RequestTimings.unbind();
+            }
+        }), "/*", EnumSet.of(DispatcherType.REQUEST)));
+        app.after(ctx -> {
+            RequestTimings timings = ctx.attribute("timings");
+            // A streamed response has already sent its headers
+            if (timings != null && !ctx.res().isCommitted()) {
+                ctx.header("Server-Timing", timings.toServerTiming());
+            }
+        });
+        logger.info("Server-Timing set");
+        return instance;
+    }
+
+    // The path as declared in Routes, e.g. /api/hotel/{id}. Requests that never reached an endpoint share one series
+    private static String routeTemplate(Context ctx) {
+        try {
+            String path = ctx.endpointHandlerPath();
+            return path == null || path.isEmpty() ? "unmatched" : path;
+        }
+        catch (IllegalStateException e) {
+            return "unmatched";
+        }
+    }
+
+    // Registered before checkSecurityRoles, so rejected requests cost as little as possible
+    public ApplicationConfig limitRequests(RateLimiter rateLimiter, ConcurrencyLimiter concurrencyLimiter) {
+        app.before(ctx -> {
+            long retryAfter = rateLimiter.tryAcquire(ctx.ip(), routeGroup(ctx));
+            if (retryAfter > 0) {
+                ctx.header("Retry-After", String.valueOf(retryAfter));
+                throw new ApiException(429, "Too many requests");
+            }
+            if (!concurrencyLimiter.tryAcquire()) {
+                ctx.header("Retry-After", "1");
+                throw new ApiException(503, "Server is busy. Try again shortly");
+            }
+            ctx.attribute("admitted", true);
+        });
+        // After handlers also run when the request failed, so every admitted request is released
+        app.after(ctx -> {
+            if (ctx.attribute("admitted") != null) {
+                concurrencyLimiter.release();
+            }
+        });
+        logger.info("Request limits set");
+        return instance;
+    }
+
+    // The first path segment after the context path, e.g. "hotel" for /api/hotel/1. RateLimiter puts unknown segments in one group
+    private static String routeGroup(Context ctx) {
+        String path = ctx.path();
+        String contextPath = javalinConfig.router.contextPath;
+        if (path.startsWith(contextPath)) {
+            path = path.substring(contextPath.length());
+        }
+        String[] segments = path.split("/");
+        for (String segment : segments) {
+            if (!segment.isEmpty()) {
+                return segment;
+            }
+        }
+        return "root";
+    }
+
     public ApplicationConfig checkSecurityRoles() {
+        return checkSecurityRoles(new SecurityController());
+    }
+
+    public ApplicationConfig checkSecurityRoles(ISecurityController securityController) {
         app.beforeMatched(securityController::accessHandler); // authenticate and authorize
         return instance;
     }
@@ -76,6 +191,24 @@ public class ApplicationConfig
         return instance;
     }
 
+    public Map<String, Integer> getServerThreadStats()
+    {
+        Map<String, Integer> stats = new LinkedHashMap<>();
+        ThreadPool threadPool = jettyServer == null ? null : jettyServer.getThreadPool();
+        if (threadPool instanceof ThreadPool.SizedThreadPool sizedPool)
+        {
+            stats.put("minThreads", sizedPool.getMinThreads());
+            stats.put("maxThreads", sizedPool.getMaxThreads());
+        }
+        if (threadPool instanceof QueuedThreadPool queuedPool)
+        {
+            stats.put("busyThreads", queuedPool.getBusyThreads());
+            stats.put("idleThreads", queuedPool.getIdleThreads());
+            stats.put("queuedJobs", queuedPool.getQueueSize());
+        }
+        return stats;
+    }
+
     public void startServer(int port)
     {
         app.start(port);
@@ -0,0 +1,84 @@
+package dat.config;
+
+import org.hibernate.hikaricp.internal.HikariCPConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// HikariCP with a fair semaphore in front, used when requests run on virtual threads.
+// Thousands of virtual threads can then wait for a connection cheaply and in order, for longer than Hikari's
+// connectionTimeout, instead of failing as soon as the pool is empty. Hibernate holds a connection per transaction,
+// so a permit is held exactly as long as a connection is.
+public class GatedConnectionProvider extends HikariCPConnectionProvider
+{
+    public static final String PERMITS = "hotel.connection_gate.permits";
+    public static final String TIMEOUT_MILLIS = "hotel.connection_gate.timeout_ms";
+    private Semaphore permits;
+    private int maxPermits;
+    private long timeoutMillis;
+    private final LongAdder timedOut = new LongAdder();
+
+    @Override
+    public void configure(Map<String, Object> props)
+    {
+        super.configure(props);
+        maxPermits = Integer.parseInt(String.valueOf(props.getOrDefault(PERMITS, "10")));
+        timeoutMillis = Long.parseLong(String.valueOf(props.getOrDefault(TIMEOUT_MILLIS, "30000")));
+        permits = new Semaphore(maxPermits, true);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException
+    {
+        try
+        {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS))
+            {
+                timedOut.increment();
+                throw new SQLException("Timed out after " + timeoutMillis + " ms waiting for a database connection");
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try
+        {
+            return super.getConnection();
+        }
+        catch (SQLException | RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public void closeConnection(Connection connection) throws SQLException
+    {
+        try
+        {
+            super.closeConnection(connection);
+        }
+        finally
+        {
+            permits.release();
+        }
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("permits", maxPermits);
+        stats.put("available", permits.availablePermits());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("timedOut", timedOut.sum());
+        return stats;
+    }
+}
@@ -1,18 +1,28 @@
 package dat.config;
 
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import dat.dto.PoolStats;
 import dat.entities.*;
 import dat.enums.Roles;
-import dat.utils.PropertyReader;
+import dat.metrics.DbTimingListener;
 import jakarta.persistence.EntityManagerFactory;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.cfg.Configuration;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Properties;
 
 public class HibernateConfig
 {
+    public static final int JDBC_BATCH_SIZE = 50;
     private static EntityManagerFactory emf;
     private static EntityManagerFactory emfTest;
     private static Boolean isTest = false;
@@ -26,48 +36,103 @@ public class HibernateConfig
     }
 
     public static EntityManagerFactory getEntityManagerFactory() {
+        return getEntityManagerFactory(AppSettings.getInstance());
+    }
+
+    public static EntityManagerFactory getEntityManagerFactory(AppSettings settings) {
         if (emf == null)
-            emf = createEMF(getTest());
+            emf = createEMF(getTest(), settings);
         return emf;
     }
 
     public static EntityManagerFactory getEntityManagerFactoryForTest() {
         if (emfTest == null){
             setTest(true);
-            emfTest = createEMF(getTest());  // No DB needed for test
+            emfTest = createEMF(getTest(), new AppSettings(Map.of()));  // No DB needed for test
         }
         return emfTest;
     }
 
+    // Same mapping and tuning, but the connection comes from the given properties instead of PostgreSQL and HikariCP.
+    // Used by the benchmarks, which run against an embedded database.
+    public static EntityManagerFactory createEntityManagerFactory(Properties overrides) {
+        Properties props = new Properties();
+        setBaseProperties(props);
+        setCacheProperties(props, false);
+        props.putAll(overrides);
+        return buildEMF(props);
+    }
+
+    public static PoolStats getPoolStats(EntityManagerFactory emf) {
+        HikariDataSource dataSource = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class)
+                .unwrap(HikariDataSource.class);
+        HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+        return new PoolStats(
+                pool.getActiveConnections(),
+                pool.getIdleConnections(),
+                pool.getTotalConnections(),
+                pool.getThreadsAwaitingConnection(),
+                dataSource.getMinimumIdle(),
+                dataSource.getMaximumPoolSize());
+    }
+
+    public static Map<String, Number> getSecondLevelCacheStats(EntityManagerFactory emf) {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Number> stats = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStats = statistics.getCacheRegionStatistics(region);
+            if (regionStats != null) {
+                stats.put(region + ".hits", regionStats.getHitCount());
+                stats.put(region + ".misses", regionStats.getMissCount());
+                stats.put(region + ".puts", regionStats.getPutCount());
+            }
+        }
+        stats.put("queryCache.hits", statistics.getQueryCacheHitCount());
+        stats.put("queryCache.misses", statistics.getQueryCacheMissCount());
+        stats.put("queryCache.puts", statistics.getQueryCachePutCount());
+        return stats;
+    }
+
+    // Empty unless requests run on virtual threads, see GatedConnectionProvider
+    public static Map<String, Number> getConnectionGateStats(EntityManagerFactory emf) {
+        ConnectionProvider provider = emf.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .getService(ConnectionProvider.class);
+        return provider instanceof GatedConnectionProvider gate ? gate.getStats() : Map.of();
+    }
+
     // TODO: IMPORTANT: Add Entity classes here for them to be registered with Hibernate
     private static void getAnnotationConfiguration(Configuration configuration) {
         configuration.addAnnotatedClass(Hotel.class);
         configuration.addAnnotatedClass(Room.class);
+        configuration.addAnnotatedClass(Booking.class);
         configuration.addAnnotatedClass(UserAccount.class);
         configuration.addAnnotatedClass(Roles.class);
     }
 
-    private static EntityManagerFactory createEMF(boolean forTest) {
+    private static EntityManagerFactory createEMF(boolean forTest, AppSettings settings) {
         try {
-            Configuration configuration = new Configuration();
             Properties props = new Properties();
             // Set the properties
             setBaseProperties(props);
             if (forTest) {
                 props = setTestProperties(props);
-            } else if (System.getenv("DEPLOYED") != null) {
-                setDeployedProperties(props);
+                setPoolProperties(props, settings);
+                setCacheProperties(props, false);
+            } else if (settings.isDeployed()) {
+                setDeployedProperties(props, settings);
+                setPoolProperties(props, settings);
+                setCacheProperties(props, settings.getBoolean("SECOND_LEVEL_CACHE_ENABLED", true));
             } else {
-                props = setDevProperties(props);
+                props = setDevProperties(props, settings);
+                setPoolProperties(props, settings);
+                setCacheProperties(props, settings.getBoolean("SECOND_LEVEL_CACHE_ENABLED", true));
             }
-            configuration.setProperties(props);
-            getAnnotationConfiguration(configuration);
-
-            ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
-                    .applySettings(configuration.getProperties())
-                    .build();
-            SessionFactory sf = configuration.buildSessionFactory(serviceRegistry);
-            return sf.unwrap(EntityManagerFactory.class);
+            // Logged by org.hibernate.SQL_SLOW with ? in place of the bind parameters
+            props.put("hibernate.log_slow_query", settings.get("SLOW_QUERY_THRESHOLD_MS", "200"));
+            return buildEMF(props);
         }
         catch (Throwable ex) {
             System.err.println("Initial SessionFactory creation failed." + ex);
@@ -75,6 +140,18 @@ public class HibernateConfig
         }
     }
 
+    private static EntityManagerFactory buildEMF(Properties props) {
+        Configuration configuration = new Configuration();
+        configuration.setProperties(props);
+        getAnnotationConfiguration(configuration);
+
+        ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySettings(configuration.getProperties())
+                .build();
+        SessionFactory sf = configuration.buildSessionFactory(serviceRegistry);
+        return sf.unwrap(EntityManagerFactory.class);
+    }
+
     private static Properties setBaseProperties(Properties props) {
         props.put("hibernate.connection.driver_class", "org.postgresql.Driver");
         props.put("hibernate.hbm2ddl.auto", "create");  // set to "update" when in production
@@ -82,27 +159,71 @@ public class HibernateConfig
         props.put("hibernate.show_sql", "false");
         props.put("hibernate.format_sql", "false");
         props.put("hibernate.use_sql_comments", "false");
+        props.put("hibernate.default_batch_fetch_size", "50");
+        props.put("hibernate.jdbc.batch_size", String.valueOf(JDBC_BATCH_SIZE));
+        props.put("hibernate.order_inserts", "true");
+        props.put("hibernate.order_updates", "true");
+        props.put("hibernate.generate_statistics", "true");
+        props.put("hibernate.session.events.auto", DbTimingListener.class.getName());
         return props;
     }
 
-    private static Properties setDeployedProperties(Properties props) {
-        String DBName = System.getenv("DB_NAME");
-        props.setProperty("hibernate.connection.url", String.format(System.getenv("CONNECTION_STR"), DBName));
-        props.setProperty("hibernate.connection.username", System.getenv("DB_USERNAME"));
-        props.setProperty("hibernate.connection.password", System.getenv("DB_PASSWORD"));
+    private static Properties setDeployedProperties(Properties props, AppSettings settings) {
+        String DBName = settings.require("DB_NAME");
+        props.setProperty("hibernate.connection.url", String.format(settings.require("CONNECTION_STR"), DBName));
+        props.setProperty("hibernate.connection.username", settings.require("DB_USERNAME"));
+        props.setProperty("hibernate.connection.password", settings.require("DB_PASSWORD"));
         return props;
     }
 
-    private static Properties setDevProperties(Properties props) {
-        String DBName = PropertyReader.getPropertyValue("DB_NAME", "config.properties");
-        String DB_USERNAME = PropertyReader.getPropertyValue("DB_USERNAME", "config.properties");
-        String DB_PASSWORD = PropertyReader.getPropertyValue("DB_PASSWORD", "config.properties");
+    private static Properties setDevProperties(Properties props, AppSettings settings) {
+        String DBName = settings.require("DB_NAME");
+        String DB_USERNAME = settings.require("DB_USERNAME");
+        String DB_PASSWORD = settings.require("DB_PASSWORD");
         props.put("hibernate.connection.url", "jdbc:postgresql://localhost:5432/" + DBName);
         props.put("hibernate.connection.username", DB_USERNAME);
         props.put("hibernate.connection.password", DB_PASSWORD);
         return props;
     }
 
+    // Missing settings fall back to the defaults below
+    private static Properties setPoolProperties(Properties props, AppSettings settings) {
+        String maximumPoolSize = settings.get("DB_POOL_MAX_SIZE", "10");
+        if (settings.getBoolean("VIRTUAL_THREADS_ENABLED", false)) {
+            props.put("hibernate.connection.provider_class", GatedConnectionProvider.class.getName());
+            props.put(GatedConnectionProvider.PERMITS, maximumPoolSize);
+            props.put(GatedConnectionProvider.TIMEOUT_MILLIS, settings.get("DB_GATE_TIMEOUT", "30000"));
+        } else {
+            props.put("hibernate.connection.provider_class", "org.hibernate.hikaricp.internal.HikariCPConnectionProvider");
+        }
+        props.put("hibernate.hikari.poolName", "hotel-db-pool");
+        props.put("hibernate.hikari.minimumIdle", settings.get("DB_POOL_MIN_IDLE", "2"));
+        props.put("hibernate.hikari.maximumPoolSize", maximumPoolSize);
+        props.put("hibernate.hikari.connectionTimeout", settings.get("DB_POOL_CONNECTION_TIMEOUT", "5000"));
+        props.put("hibernate.hikari.leakDetectionThreshold", settings.get("DB_POOL_LEAK_DETECTION_THRESHOLD", "0"));
+        // Lets the PostgreSQL driver send a JDBC batch as multi-row INSERTs
+        props.put("hibernate.hikari.dataSource.reWriteBatchedInserts", "true");
+        String validationQuery = settings.get("DB_POOL_VALIDATION_QUERY");
+        if (validationQuery != null) {
+            // Only needed for drivers without JDBC4 Connection.isValid(), which the PostgreSQL driver has
+            props.put("hibernate.hikari.connectionTestQuery", validationQuery);
+        }
+        return props;
+    }
+
+    // Region sizes and TTLs are configured in application.conf
+    private static Properties setCacheProperties(Properties props, boolean enabled) {
+        props.put("hibernate.cache.use_second_level_cache", String.valueOf(enabled));
+        props.put("hibernate.cache.use_query_cache", String.valueOf(enabled));
+        if (enabled) {
+            props.put("hibernate.cache.region.factory_class", "jcache");
+            props.put("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+            props.put("hibernate.javax.cache.missing_cache_strategy", "create");
+            props.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        }
+        return props;
+    }
+
     private static Properties setTestProperties(Properties props) {
         props.put("hibernate.connection.driver_class", "org.testcontainers.jdbc.ContainerDatabaseDriver");
         props.put("hibernate.connection.url", "jdbc:tc:postgresql:16.2:///test_db");
@@ -0,0 +1,158 @@
+package dat.controllers;
+
+import dat.dao.BookingDAO;
+import dat.dao.HotelDAO;
+import dat.dao.IBookingDAO;
+import dat.dao.IHotelDAO;
+import dat.dto.BookingDTO;
+import dat.dto.BookingRequest;
+import dat.dto.ErrorMessage;
+import dat.exceptions.BookingConflictException;
+import dat.services.AvailabilityService;
+import dk.bugelhartmann.UserDTO;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import io.javalin.http.ForbiddenResponse;
+import io.javalin.http.HttpStatus;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+public class BookingController
+{
+    private final AvailabilityService availability;
+    private final IBookingDAO dao;
+    private static final Logger logger = LoggerFactory.getLogger(BookingController.class);
+
+    public BookingController(EntityManagerFactory emf)
+    {
+        this(new BookingDAO(emf), new HotelDAO(emf));
+    }
+
+    public BookingController(IBookingDAO dao, IHotelDAO hotelDAO)
+    {
+        this(dao, new AvailabilityService(dao, hotelDAO));
+        availability.rebuild();
+    }
+
+    public BookingController(IBookingDAO dao, AvailabilityService availability)
+    {
+        this.dao = dao;
+        this.availability = availability;
+    }
+
+    // GET /hotel/{id}/availability?checkIn=2030-06-01&checkOut=2030-06-04
+    public void getAvailableRooms(Context ctx)
+    {
+        long hotelId = ctx.pathParamAsClass("id", Long.class)
+                .check(i -> i > 0, "id must be at least 1")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
+        LocalDate checkIn = dateParam(ctx, "checkIn");
+        LocalDate checkOut = dateParam(ctx, "checkOut");
+        try
+        {
+            ctx.json(availability.getFreeRooms(hotelId, checkIn, checkOut));
+        }
+        catch (IllegalArgumentException ex)
+        {
+            ctx.status(400).json(new ErrorMessage(400, ex.getMessage()));
+        }
+        catch (Exception ex)
+        {
+            logger.error("Error getting available rooms", ex);
+            ctx.status(404).json(new ErrorMessage("No entity with that id"));
+        }
+    }
+
+    public void create(Context ctx)
+    {
+        UserDTO user = ctx.attribute("user");
+        BookingRequest request = ctx.bodyAsClass(BookingRequest.class);
+        if (request.roomId() == null)
+        {
+            throw new BadRequestResponse("roomId is required");
+        }
+        try
+        {
+            BookingDTO booking = availability.reserve(request.roomId(), user.getUsername(), request.checkIn(), request.checkOut());
+            ctx.status(HttpStatus.CREATED).json(booking);
+        }
+        catch (IllegalArgumentException ex)
+        {
+            ctx.status(400).json(new ErrorMessage(400, ex.getMessage()));
+        }
+        catch (BookingConflictException ex)
+        {
+            ctx.status(409).json(new ErrorMessage(409, ex.getMessage()));
+        }
+        catch (EntityNotFoundException ex)
+        {
+            ctx.status(404).json(new ErrorMessage(404, "No room with that id"));
+        }
+    }
+
+    public void getMine(Context ctx)
+    {
+        UserDTO user = ctx.attribute("user");
+        ctx.json(dao.getBookingsForUser(user.getUsername()));
+    }
+
+    // Guests can cancel their own bookings, admins any booking
+    public void delete(Context ctx)
+    {
+        UserDTO user = ctx.attribute("user");
+        long id = ctx.pathParamAsClass("id", Long.class)
+                .check(i -> i > 0, "id must be at least 1")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
+        BookingDTO booking;
+        try
+        {
+            booking = dao.getBooking(id);
+        }
+        catch (EntityNotFoundException ex)
+        {
+            ctx.status(404).json(new ErrorMessage(404, "No booking with that id"));
+            return;
+        }
+        if (!booking.username().equals(user.getUsername()) && user.getRoles().stream().noneMatch("ADMIN"::equalsIgnoreCase))
+        {
+            throw new ForbiddenResponse("Only the guest or an admin can cancel a booking");
+        }
+        try
+        {
+            availability.cancel(booking);
+        }
+        catch (EntityNotFoundException ex)
+        {
+            ctx.status(404).json(new ErrorMessage(404, "No booking with that id"));
+            return;
+        }
+        ctx.status(204);
+    }
+
+    public AvailabilityService getAvailability()
+    {
+        return availability;
+    }
+
+    private static LocalDate dateParam(Context ctx, String name)
+    {
+        String value = ctx.queryParam(name);
+        if (value == null)
+        {
+            throw new BadRequestResponse(name + " is required");
+        }
+        try
+        {
+            return LocalDate.parse(value);
+        }
+        catch (DateTimeParseException ex)
+        {
+            throw new BadRequestResponse(name + " must be a date like 2030-06-01");
+        }
+    }
+}
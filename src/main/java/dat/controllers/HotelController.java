@@ -1,22 +1,47 @@
 package dat.controllers;
 
-import dat.dao.CrudDAO;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.dao.DbExecutor;
 import dat.dao.HotelDAO;
+import dat.dao.IHotelDAO;
+import dat.dto.BulkImportResult;
 import dat.dto.ErrorMessage;
 import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
 import dat.entities.Hotel;
-import dat.entities.Room;
+import dat.utils.BoundedExecutor;
+import dat.utils.ConditionalRequests;
+import dat.utils.JsonStreamReader;
 import io.javalin.http.BadRequestResponse;
 import io.javalin.http.Context;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
-public class HotelController implements IController
+public class HotelController implements IController, IAsyncController
 {
-    private final CrudDAO dao;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int BULK_CHUNK_SIZE = 500;
+    private final IHotelDAO dao;
+    private final DbExecutor dbExecutor = DbExecutor.getInstance();
+    private final ObjectMapper objectMapper = new ObjectMapper();
     private static final Logger logger = LoggerFactory.getLogger(HotelController.class);
 
 
@@ -25,7 +50,7 @@ public class HotelController implements IController
         dao = new HotelDAO(emf);
     }
 
-    public HotelController(CrudDAO dao)
+    public HotelController(IHotelDAO dao)
     {
         this.dao = dao;
     }
@@ -35,9 +60,16 @@ public class HotelController implements IController
     @Override
     public void getAll(Context ctx)
     {
+        if (ctx.queryParamAsClass("stream", Boolean.class).getOrDefault(false))
+        {
+            streamAll(ctx);
+            return;
+        }
         try
         {
-            ctx.json(dao.getAll(Hotel.class));
+            Long after = afterParam(ctx);
+            int limit = limitParam(ctx);
+            respondWithPage(ctx, after, limit, dao.getHotelDtosAfter(after, limit));
         }
         catch (Exception ex)
         {
@@ -47,17 +79,69 @@ public class HotelController implements IController
         }
     }
 
+    @Override
+    public CompletableFuture<Void> getAllAsync(Context ctx)
+    {
+        if (ctx.queryParamAsClass("stream", Boolean.class).getOrDefault(false))
+        {
+            // Streaming writes to the response while reading, so it stays on the request thread
+            streamAll(ctx);
+            return CompletableFuture.completedFuture(null);
+        }
+        try
+        {
+            Long after = afterParam(ctx);
+            int limit = limitParam(ctx);
+            return dbExecutor.submit(() -> dao.getHotelDtosAfter(after, limit))
+                    .thenAccept(page -> respondWithPage(ctx, after, limit, page))
+                    .exceptionally(ex -> fail(ctx, ex, 404, "Error getting entities"));
+        }
+        catch (Exception ex)
+        {
+            return CompletableFuture.completedFuture(fail(ctx, ex, 404, "Error getting entities"));
+        }
+    }
+
+    private void respondWithPage(Context ctx, Long after, int limit, List<HotelDTO> page)
+    {
+        if (page.size() == limit)
+        {
+            // Clients continue from here with ?after=<cursor>
+            ctx.header("X-Next-Cursor", String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        if (ConditionalRequests.isNotModified(ctx, pageEtag(after, limit, page), lastModified(page.stream().map(HotelDTO::getLastModified))))
+        {
+            return;
+        }
+        ctx.json(page);
+    }
+
+    private void streamAll(Context ctx)
+    {
+        try (Stream<HotelDTO> hotels = dao.streamHotelDtos())
+        {
+            ctx.writeJsonStream(hotels);
+        }
+        catch (Exception ex)
+        {
+            // Once the first hotel has been written the status can no longer be changed
+            logger.error("Error streaming entities", ex);
+            if (!ctx.res().isCommitted())
+            {
+                ctx.status(500).json(new ErrorMessage("Error streaming entities"));
+            }
+        }
+    }
+
     @Override
     public void getById(Context ctx)
     {
 
         try {
             //long id = Long.parseLong(ctx.pathParam("id"));
-            long id = ctx.pathParamAsClass("id", Long.class)
-                    .check(i -> i>0, "id must be at least 0")
-                    .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
-            HotelDTO foundEntity = new HotelDTO(dao.getById(Hotel.class, id));
-            ctx.json(foundEntity);
+            long id = idParam(ctx);
+            HotelDTO hotel = dao.getHotelDto(id);
+            respondWithHotel(ctx, hotel);
 
         } catch (Exception ex){
             logger.error("Error getting entity", ex);
@@ -66,6 +150,33 @@ public class HotelController implements IController
         }
     }
 
+    // A single cached DTO read of the hotel alone; its rooms are served by getRooms
+    @Override
+    public CompletableFuture<Void> getByIdAsync(Context ctx)
+    {
+        try
+        {
+            long id = idParam(ctx);
+            return dbExecutor.submit(() -> dao.getHotelDto(id))
+                    .thenAccept(hotel -> respondWithHotel(ctx, hotel))
+                    .exceptionally(ex -> fail(ctx, ex, 404, "No entity with that id"));
+        }
+        catch (Exception ex)
+        {
+            return CompletableFuture.completedFuture(fail(ctx, ex, 404, "No entity with that id"));
+        }
+    }
+
+    private void respondWithHotel(Context ctx, HotelDTO hotel)
+    {
+        String etag = ConditionalRequests.versionEtag(hotel.getId(), hotel.getVersion());
+        if (ConditionalRequests.isNotModified(ctx, etag, hotel.getLastModified()))
+        {
+            return;
+        }
+        ctx.json(hotel);
+    }
+
     @Override
     public void create(Context ctx)
     {
@@ -73,12 +184,7 @@ public class HotelController implements IController
         {
             HotelDTO incomingTest = ctx.bodyAsClass(HotelDTO.class);
             Hotel entity = new Hotel(incomingTest);
-            Hotel createdEntity = dao.create(entity);
-            for (Room room : entity.getRooms())
-            {
-                room.setHotel(createdEntity);
-                dao.update(room);
-            }
+            Hotel createdEntity = dao.createHotel(entity);
             ctx.json(new HotelDTO(createdEntity));
         }
         catch (Exception ex)
@@ -89,29 +195,161 @@ public class HotelController implements IController
         }
     }
 
-    public void update(Context ctx)
+    @Override
+    public CompletableFuture<Void> createAsync(Context ctx)
     {
         try
         {
-            //int id = Integer.parseInt(ctx.pathParam("id"));
-            long id = ctx.pathParamAsClass("id", Long.class)
-                    .check(i -> i>0, "id must be at least 0")
-                    .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
-            HotelDTO incomingEntity = ctx.bodyAsClass(HotelDTO.class);
-            Hotel hotelToUpdate = dao.getById(Hotel.class, id);
-            if (incomingEntity.getName() != null)
+            Hotel entity = new Hotel(ctx.bodyAsClass(HotelDTO.class));
+            return dbExecutor.submit(() -> dao.createHotel(entity))
+                    .thenAccept(createdEntity -> ctx.json(new HotelDTO(createdEntity)))
+                    .exceptionally(ex -> fail(ctx, ex, 400, "Error creating entity"));
+        }
+        catch (Exception ex)
+        {
+            return CompletableFuture.completedFuture(fail(ctx, ex, 400, "Error creating entity"));
+        }
+    }
+
+    // Accepts a JSON array or newline delimited JSON of hotels and commits them a chunk at a time
+    public void createBulk(Context ctx)
+    {
+        BulkImportResult result = new BulkImportResult();
+        JsonStreamReader<HotelDTO> reader = new JsonStreamReader<>(objectMapper, HotelDTO.class, BULK_CHUNK_SIZE);
+        try (InputStream body = ctx.bodyInputStream())
+        {
+            reader.read(body, chunk -> importChunk(chunk, result), result::reject);
+        }
+        catch (IOException ex)
+        {
+            // Everything up to the malformed record has already been committed
+            logger.error("Error reading bulk import", ex);
+            String message = "Malformed JSON, import stopped: ";
+            if (ex instanceof JsonProcessingException jsonEx && jsonEx.getLocation() != null)
             {
-                hotelToUpdate.setName(incomingEntity.getName());
+                JsonLocation location = jsonEx.getLocation();
+                result.addError(reader.getRecordsRead(), location.getLineNr(), location.getColumnNr(), message + jsonEx.getOriginalMessage());
             }
-            if (incomingEntity.getAddress() != null)
+            else
+            {
+                result.addError(reader.getRecordsRead(), 0, 0, message + ex.getMessage());
+            }
+        }
+        ctx.json(result);
+    }
+
+    private void importChunk(List<JsonStreamReader.Record<HotelDTO>> chunk, BulkImportResult result)
+    {
+        List<Hotel> hotels = new ArrayList<>(chunk.size());
+        List<JsonStreamReader.Record<HotelDTO>> imported = new ArrayList<>(chunk.size());
+        for (JsonStreamReader.Record<HotelDTO> record : chunk)
+        {
+            HotelDTO hotelDTO = record.value();
+            if (hotelDTO.getName() == null || hotelDTO.getName().isBlank())
             {
-                hotelToUpdate.setAddress(incomingEntity.getAddress());
+                result.reject(record.index(), record.line(), record.column(), "Hotel name is required");
+                continue;
             }
-            Hotel updatedEntity = dao.update(hotelToUpdate);
-            HotelDTO returnedEntity = new HotelDTO(updatedEntity);
-            ctx.json(returnedEntity);
+            hotels.add(new Hotel(hotelDTO));
+            imported.add(record);
+        }
+        if (hotels.isEmpty())
+        {
+            return;
+        }
+        try
+        {
+            dao.createHotels(hotels);
+            result.accept(hotels.size());
         }
         catch (Exception ex)
+        {
+            logger.error("Error importing chunk of hotels", ex);
+            imported.forEach(record -> result.reject(record.index(), record.line(), record.column(), "Chunk was rolled back: " + ex.getMessage()));
+        }
+    }
+
+    public void update(Context ctx)
+    {
+        try
+        {
+            //int id = Integer.parseInt(ctx.pathParam("id"));
+            long id = idParam(ctx);
+            HotelDTO incomingEntity = ctx.bodyAsClass(HotelDTO.class);
+            Long expectedVersion = expectedVersion(ctx, id);
+            dao.updateHotelDetails(id, incomingEntity.getName(), incomingEntity.getAddress(), expectedVersion);
+            respondWithUpdated(ctx, dao.getHotelById(id));
+        }
+        catch (Exception ex)
+        {
+            updateFailed(ctx, ex);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> updateAsync(Context ctx)
+    {
+        try
+        {
+            long id = idParam(ctx);
+            HotelDTO incomingEntity = ctx.bodyAsClass(HotelDTO.class);
+            Long expectedVersion = expectedVersion(ctx, id);
+            return dbExecutor.submit(() -> {
+                        dao.updateHotelDetails(id, incomingEntity.getName(), incomingEntity.getAddress(), expectedVersion);
+                        return dao.getHotelById(id);
+                    })
+                    .thenAccept(updatedEntity -> respondWithUpdated(ctx, updatedEntity))
+                    .exceptionally(ex -> {
+                        updateFailed(ctx, BoundedExecutor.unwrap(ex));
+                        return null;
+                    });
+        }
+        catch (Exception ex)
+        {
+            updateFailed(ctx, ex);
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    // With If-Match the update only goes through if the client saw the current version
+    private static Long expectedVersion(Context ctx, long id)
+    {
+        String ifMatch = ctx.header("If-Match");
+        if (ifMatch == null || ifMatch.trim().equals("*"))
+        {
+            return null;
+        }
+        Long expectedVersion = ConditionalRequests.versionFromEtag(ifMatch, id);
+        if (expectedVersion == null)
+        {
+            throw new OptimisticLockException("If-Match does not name a version of hotel " + id);
+        }
+        return expectedVersion;
+    }
+
+    private static void respondWithUpdated(Context ctx, Hotel updatedEntity)
+    {
+        ctx.header("ETag", ConditionalRequests.versionEtag(updatedEntity.getId(), updatedEntity.getVersion()));
+        HotelDTO returnedEntity = new HotelDTO(updatedEntity.getId(), updatedEntity.getName(), updatedEntity.getAddress());
+        ctx.json(returnedEntity);
+    }
+
+    private void updateFailed(Context ctx, Throwable ex)
+    {
+        if (ex instanceof OptimisticLockException)
+        {
+            logger.info("Conditional update rejected: {}", ex.getMessage());
+            ctx.status(412).json(new ErrorMessage(412, "Hotel has been changed by someone else. Fetch it again and retry"));
+        }
+        else if (ex instanceof EntityNotFoundException)
+        {
+            ctx.status(404).json(new ErrorMessage(404, "No entity with that id"));
+        }
+        else if (ex instanceof RejectedExecutionException)
+        {
+            fail(ctx, ex, 503, "Server is busy");
+        }
+        else
         {
             logger.error("Error updating entity", ex);
             ErrorMessage error = new ErrorMessage("Error updating entity. " + ex.getMessage());
@@ -124,10 +362,8 @@ public class HotelController implements IController
         try
         {
             //long id = Long.parseLong(ctx.pathParam("id"));
-            long id = ctx.pathParamAsClass("id", Long.class)
-                    .check(i -> i>0, "id must be at least 0")
-                    .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
-            dao.delete(Hotel.class, id);
+            long id = idParam(ctx);
+            dao.deleteHotel(id);
             ctx.status(204);
         }
         catch (Exception ex)
@@ -138,15 +374,36 @@ public class HotelController implements IController
         }
     }
 
+    @Override
+    public CompletableFuture<Void> deleteAsync(Context ctx)
+    {
+        try
+        {
+            long id = idParam(ctx);
+            return dbExecutor.submit(() -> {
+                        dao.deleteHotel(id);
+                        return id;
+                    })
+                    .thenAccept(deletedId -> ctx.status(204))
+                    .exceptionally(ex -> fail(ctx, ex, 400, "Error deleting entity"));
+        }
+        catch (Exception ex)
+        {
+            return CompletableFuture.completedFuture(fail(ctx, ex, 400, "Error deleting entity"));
+        }
+    }
+
     public void getRooms(@NotNull Context context)
     {
         try
         {
-            long id = context.pathParamAsClass("id", Long.class)
-                    .check(i -> i>0, "id must be at least 0")
-                    .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
-            Hotel hotel = dao.getById(Hotel.class, id);
-            context.json(hotel.getRooms());
+            long id = idParam(context);
+            List<RoomDTO> rooms = dao.getRoomDtos(id);
+            if (ConditionalRequests.isNotModified(context, roomsEtag(id, rooms), lastModified(rooms.stream().map(RoomDTO::getLastModified))))
+            {
+                return;
+            }
+            context.json(rooms);
         }
         catch (Exception ex)
         {
@@ -155,4 +412,74 @@ public class HotelController implements IController
             context.status(404).json(error);
         }
     }
+
+    private static long idParam(Context ctx)
+    {
+        return ctx.pathParamAsClass("id", Long.class)
+                .check(i -> i>0, "id must be at least 0")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid id"));
+    }
+
+    private static Long afterParam(Context ctx)
+    {
+        return ctx.queryParam("after") == null ? null : ctx.queryParamAsClass("after", Long.class)
+                .check(i -> i >= 0, "after must be at least 0")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid after"));
+    }
+
+    private static int limitParam(Context ctx)
+    {
+        return ctx.queryParamAsClass("limit", Integer.class)
+                .check(i -> i > 0 && i <= MAX_PAGE_SIZE, "limit must be between 1 and " + MAX_PAGE_SIZE)
+                .getOrDefault(DEFAULT_PAGE_SIZE);
+    }
+
+    // Maps a failed async call to the same response the blocking handler gives, or 503 when the DB executor is full
+    private Void fail(Context ctx, Throwable throwable, int status, String message)
+    {
+        Throwable ex = BoundedExecutor.unwrap(throwable);
+        if (ex instanceof RejectedExecutionException)
+        {
+            logger.warn("DB executor queue is full, rejecting request");
+            ctx.header("Retry-After", "1");
+            ctx.status(503).json(new ErrorMessage(503, "Server is busy. Try again shortly"));
+            return null;
+        }
+        logger.error(message, ex);
+        ctx.status(status).json(new ErrorMessage(message));
+        return null;
+    }
+
+    private static String pageEtag(Long after, int limit, List<HotelDTO> page)
+    {
+        long[] values = new long[2 + page.size() * 2];
+        values[0] = after == null ? -1 : after;
+        values[1] = limit;
+        for (int i = 0; i < page.size(); i++)
+        {
+            values[2 + i * 2] = page.get(i).getId();
+            values[3 + i * 2] = page.get(i).getVersion();
+        }
+        return ConditionalRequests.etag("hotels", values);
+    }
+
+    private static String roomsEtag(long hotelId, List<RoomDTO> rooms)
+    {
+        long[] values = new long[1 + rooms.size() * 2];
+        values[0] = hotelId;
+        for (int i = 0; i < rooms.size(); i++)
+        {
+            values[1 + i * 2] = rooms.get(i).getId();
+            values[2 + i * 2] = rooms.get(i).getVersion();
+        }
+        return ConditionalRequests.etag("rooms", values);
+    }
+
+    private static Instant lastModified(Stream<Instant> timestamps)
+    {
+        return timestamps
+                .filter(Objects::nonNull)
+                .max(Comparator.naturalOrder())
+                .orElse(null);
+    }
 }
@@ -0,0 +1,15 @@
+package dat.controllers;
+
+import io.javalin.http.Context;
+
+import java.util.concurrent.CompletableFuture;
+
+// Same operations as IController, but the work happens off the request thread. Routes hand the future to ctx.future()
+public interface IAsyncController
+{
+    CompletableFuture<Void> createAsync(Context ctx);
+    CompletableFuture<Void> getByIdAsync(Context ctx);
+    CompletableFuture<Void> getAllAsync(Context ctx);
+    CompletableFuture<Void> updateAsync(Context ctx);
+    CompletableFuture<Void> deleteAsync(Context ctx);
+}
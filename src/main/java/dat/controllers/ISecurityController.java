@@ -9,5 +9,6 @@ public interface ISecurityController
     void register(Context ctx); // to get a user
     void verify(Context ctx); // to verify a token
     void timeToLive(Context ctx); // to check how long a token is valid
+    void logout(Context ctx); // to revoke a token before it expires
     void accessHandler(Context ctx); // to check if a user has access to a route
 }
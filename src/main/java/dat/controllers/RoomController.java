@@ -0,0 +1,77 @@
+package dat.controllers;
+
+import dat.dao.IRoomDAO;
+import dat.dao.RoomDAO;
+import dat.dto.ErrorMessage;
+import dat.enums.RoomSort;
+import io.javalin.http.BadRequestResponse;
+import io.javalin.http.Context;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class RoomController
+{
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private final IRoomDAO dao;
+    private static final Logger logger = LoggerFactory.getLogger(RoomController.class);
+
+    public RoomController(EntityManagerFactory emf)
+    {
+        dao = new RoomDAO(emf);
+    }
+
+    public RoomController(IRoomDAO dao)
+    {
+        this.dao = dao;
+    }
+
+    // GET /rooms?minPrice=&maxPrice=&hotelId=&sort=price&limit=
+    public void search(Context ctx)
+    {
+        Double minPrice = priceParam(ctx, "minPrice");
+        Double maxPrice = priceParam(ctx, "maxPrice");
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice)
+        {
+            throw new BadRequestResponse("minPrice must not be above maxPrice");
+        }
+        Long hotelId = ctx.queryParam("hotelId") == null ? null : ctx.queryParamAsClass("hotelId", Long.class)
+                .check(i -> i > 0, "hotelId must be at least 1")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid hotelId"));
+        RoomSort sort = sortParam(ctx);
+        int limit = ctx.queryParamAsClass("limit", Integer.class)
+                .check(i -> i > 0 && i <= MAX_PAGE_SIZE, "limit must be between 1 and " + MAX_PAGE_SIZE)
+                .getOrDefault(DEFAULT_PAGE_SIZE);
+        try
+        {
+            ctx.json(dao.searchRooms(minPrice, maxPrice, hotelId, sort, limit));
+        }
+        catch (Exception ex)
+        {
+            logger.error("Error searching rooms", ex);
+            ctx.status(500).json(new ErrorMessage("Error searching rooms"));
+        }
+    }
+
+    private static Double priceParam(Context ctx, String name)
+    {
+        return ctx.queryParam(name) == null ? null : ctx.queryParamAsClass(name, Double.class)
+                .check(p -> p >= 0, name + " must be at least 0")
+                .getOrThrow((validator) -> new BadRequestResponse("Invalid " + name));
+    }
+
+    private static RoomSort sortParam(Context ctx)
+    {
+        String sort = ctx.queryParam("sort");
+        if (sort == null || sort.equalsIgnoreCase("price"))
+        {
+            return RoomSort.PRICE;
+        }
+        if (sort.equalsIgnoreCase("id"))
+        {
+            return RoomSort.ID;
+        }
+        throw new BadRequestResponse("sort must be price or id");
+    }
+}
@@ -2,6 +2,7 @@ package dat.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import dat.config.AppSettings;
 import dat.config.HibernateConfig;
 import dat.dao.ISecurityDAO;
 import dat.dao.SecurityDAO;
@@ -11,7 +12,10 @@ import dat.enums.Roles;
 import dat.exceptions.ApiException;
 import dat.exceptions.DaoException;
 import dat.exceptions.ValidationException;
-import dat.utils.PropertyReader;
+import dat.security.HashingExecutor;
+import dat.security.LoginThrottle;
+import dat.security.TokenCache;
+import dat.utils.BoundedExecutor;
 import dk.bugelhartmann.*;
 import io.javalin.http.*;
 import io.javalin.security.RouteRole;
@@ -29,27 +33,58 @@ import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 public class SecurityController implements ISecurityController
 {
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final ITokenSecurity tokenSecurity = new TokenSecurity();
     private final ISecurityDAO securityDAO;
+    private final TokenCache tokenCache;
+    private final Supplier<AppSettings> settings;
+    private final HashingExecutor hashingExecutor;
+    private final LoginThrottle loginThrottle;
     private final Logger logger = LoggerFactory.getLogger(SecurityController.class);
 
     public SecurityController()
     {
-        this.securityDAO = new SecurityDAO(HibernateConfig.getEntityManagerFactory());
+        this(HibernateConfig.getEntityManagerFactory());
     }
 
     public SecurityController(EntityManagerFactory emf)
     {
-        this.securityDAO = new SecurityDAO(emf);
+        this(emf, TokenCache.getInstance());
+    }
+
+    public SecurityController(EntityManagerFactory emf, TokenCache tokenCache)
+    {
+        this(new SecurityDAO(emf), tokenCache);
     }
 
     public SecurityController(ISecurityDAO securityDAO)
+    {
+        this(securityDAO, TokenCache.getInstance());
+    }
+
+    public SecurityController(ISecurityDAO securityDAO, TokenCache tokenCache)
+    {
+        this(securityDAO, tokenCache, AppSettings::getInstance);
+    }
+
+    public SecurityController(ISecurityDAO securityDAO, TokenCache tokenCache, Supplier<AppSettings> settings)
+    {
+        this(securityDAO, tokenCache, settings, HashingExecutor.getInstance(), LoginThrottle.getInstance());
+    }
+
+    public SecurityController(ISecurityDAO securityDAO, TokenCache tokenCache, Supplier<AppSettings> settings,
+                              HashingExecutor hashingExecutor, LoginThrottle loginThrottle)
     {
         this.securityDAO = securityDAO;
+        this.tokenCache = tokenCache;
+        this.settings = settings;
+        this.hashingExecutor = hashingExecutor;
+        this.loginThrottle = loginThrottle;
     }
 
     // Health check for the API. Used in deployment
@@ -58,44 +93,75 @@ public class SecurityController implements ISecurityController
     }
 
 
+    // The BCrypt check runs on the hashing executor, so the Jetty thread is free while it works
     @Override
     public void login(Context ctx)
     {
-        ObjectNode returnJson = objectMapper.createObjectNode();
-        try {
-            UserDTO userInput = ctx.bodyAsClass(UserDTO.class);
-            UserDTO verifiedUser = securityDAO.getVerifiedUser(userInput.getUsername(),  userInput.getPassword());
-            String token = createToken(verifiedUser);
-            returnJson.put("token", token)
-                    .put("username", verifiedUser.getUsername());
-
-            ctx.status(HttpStatus.OK).json(returnJson);
-        }
-        catch (EntityNotFoundException | ValidationException | DaoException e) {
-            logger.error("Error logging in user", e);
-            throw new ApiException(401, "Could not verify user", e);
-            //ctx.status(HttpStatus.UNAUTHORIZED).json(new ErrorMessage("Could not verify user " + e.getMessage()));
+        UserDTO userInput = ctx.bodyAsClass(UserDTO.class);
+        long retryAfter = loginThrottle.retryAfterSeconds(ctx.ip(), userInput.getUsername());
+        if (retryAfter > 0) {
+            logger.warn("Too many login attempts (ip {}, username {})", ctx.ip(), userInput.getUsername());
+            ctx.header("Retry-After", String.valueOf(retryAfter));
+            throw new ApiException(429, "Too many login attempts. Try again later");
         }
+        ctx.future(() -> hashingExecutor.submit(() -> securityDAO.getVerifiedUser(userInput.getUsername(), userInput.getPassword()))
+                .thenAccept(verifiedUser -> {
+                    ObjectNode returnJson = objectMapper.createObjectNode();
+                    String token = createToken(verifiedUser);
+                    returnJson.put("token", token)
+                            .put("username", verifiedUser.getUsername());
+
+                    ctx.status(HttpStatus.OK).json(returnJson);
+                })
+                .exceptionally(throwable -> {
+                    Throwable e = BoundedExecutor.unwrap(throwable);
+                    if (e instanceof EntityNotFoundException || e instanceof ValidationException || e instanceof DaoException) {
+                        logger.error("Error logging in user", e);
+                        throw new ApiException(401, "Could not verify user", (Exception) e);
+                        //ctx.status(HttpStatus.UNAUTHORIZED).json(new ErrorMessage("Could not verify user " + e.getMessage()));
+                    }
+                    throw asyncFailure(ctx, e);
+                }));
     }
 
     @Override
     public void register(Context ctx)
     {
-        ObjectNode returnJson = objectMapper.createObjectNode();
-        try {
-            UserDTO userInput = ctx.bodyAsClass(UserDTO.class);
-            UserAccount createdUserAccount = securityDAO.createUser(userInput.getUsername(), userInput.getPassword());
-            String token = createToken(new UserDTO(createdUserAccount.getUsername(), Set.of("USER")));
-            returnJson.put("token", token)
-                    .put("username", createdUserAccount.getUsername());
+        UserDTO userInput = ctx.bodyAsClass(UserDTO.class);
+        ctx.future(() -> hashingExecutor.submit(() -> securityDAO.createUser(userInput.getUsername(), userInput.getPassword()))
+                .thenAccept(createdUserAccount -> {
+                    ObjectNode returnJson = objectMapper.createObjectNode();
+                    String token = createToken(new UserDTO(createdUserAccount.getUsername(), Set.of("USER")));
+                    returnJson.put("token", token)
+                            .put("username", createdUserAccount.getUsername());
+
+                    ctx.status(HttpStatus.CREATED).json(returnJson);
+                })
+                .exceptionally(throwable -> {
+                    Throwable e = BoundedExecutor.unwrap(throwable);
+                    if (e instanceof EntityExistsException) {
+                        logger.error("Error registering user", e);
+                        //throw new APIException(422, "Could not register user: User already exists", e);
+                        ctx.status(HttpStatus.UNPROCESSABLE_CONTENT).json(new ErrorMessage("User already exists " + e.getMessage()));
+                        return null;
+                    }
+                    throw asyncFailure(ctx, e);
+                }));
+    }
 
-            ctx.status(HttpStatus.CREATED).json(returnJson);
+    // A full hashing queue is answered right away, instead of making the client wait behind everybody else
+    private RuntimeException asyncFailure(Context ctx, Throwable e) {
+        if (e instanceof RejectedExecutionException) {
+            logger.warn("Password hashing queue is full, rejecting request");
+            ctx.header("Retry-After", "1");
+            return new ApiException(503, "Server is busy. Try again shortly");
         }
-        catch (EntityExistsException e) {
-            logger.error("Error registering user", e);
-            //throw new APIException(422, "Could not register user: User already exists", e);
-            ctx.status(HttpStatus.UNPROCESSABLE_CONTENT).json(new ErrorMessage("User already exists " + e.getMessage()));
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
         }
+        return e instanceof Exception exception
+                ? new ApiException(500, e.getMessage(), exception)
+                : new ApiException(500, e.getMessage());
     }
 
     public void accessHandler(Context ctx)
@@ -140,7 +206,25 @@ public class SecurityController implements ISecurityController
         {
             throw new UnauthorizedResponse("Authorization header is malformed");
         }
-        return verifyToken(token);
+        return getUserFromToken(token);
+    }
+
+    // Only the first request with a token pays for parsing and checking the signature
+    public UserDTO getUserFromToken(String token)
+    {
+        return tokenCache.get(token, this::verifyToken);
+    }
+
+    @Override
+    public void logout(Context ctx)
+    {
+        UserDTO verifiedTokenUser = getUserFromToken(ctx);
+        if (verifiedTokenUser == null)
+        {
+            throw new UnauthorizedResponse("Invalid user or token");
+        }
+        tokenCache.revoke(ctx.header("Authorization").split(" ")[1]);
+        ctx.status(HttpStatus.OK).json(objectMapper.createObjectNode().put("msg", "Token has been revoked"));
     }
 
     @Override
@@ -198,29 +282,17 @@ public class SecurityController implements ISecurityController
 
     private String createToken(UserDTO user) {
         try {
-            String ISSUER;
-            String TOKEN_EXPIRE_TIME;
-            String SECRET_KEY;
-
-            if (System.getenv("DEPLOYED") != null) {
-                ISSUER = System.getenv("ISSUER");
-                TOKEN_EXPIRE_TIME = System.getenv("TOKEN_EXPIRE_TIME");
-                SECRET_KEY = System.getenv("SECRET_KEY");
-            } else {
-                ISSUER = PropertyReader.getPropertyValue("ISSUER", "config.properties");
-                TOKEN_EXPIRE_TIME = PropertyReader.getPropertyValue("TOKEN_EXPIRE_TIME", "config.properties");
-                SECRET_KEY = PropertyReader.getPropertyValue("SECRET_KEY", "config.properties");
-            }
-            return tokenSecurity.createToken(user, ISSUER, TOKEN_EXPIRE_TIME, SECRET_KEY);
+            AppSettings current = settings.get();
+            return tokenSecurity.createToken(user, current.getIssuer(), current.getTokenExpireTime(), current.getSecretKey());
         } catch (Exception e) {
             logger.error("Error creating token", e);
             throw new ApiException(500, "Could not create token");
         }
     }
 
-    private UserDTO verifyToken(String token) {
-        boolean IS_DEPLOYED = (System.getenv("DEPLOYED") != null);
-        String SECRET = IS_DEPLOYED ? System.getenv("SECRET_KEY") : PropertyReader.getPropertyValue("SECRET_KEY", "config.properties");
+    // The full check, without the cache. Public so the benchmarks measure the same code
+    public UserDTO verifyToken(String token) {
+        String SECRET = settings.get().getSecretKey();
 
         try {
             if (tokenSecurity.tokenIsValid(token, SECRET) && tokenSecurity.tokenNotExpired(token)) {
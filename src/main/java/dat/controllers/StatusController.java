@@ -0,0 +1,92 @@
+package dat.controllers;
+
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.dto.ErrorMessage;
+import dat.dto.PoolStats;
+import dat.metrics.HibernateMetrics;
+import dat.metrics.JvmMetrics;
+import dat.metrics.MetricsRegistry;
+import dat.metrics.PrometheusWriter;
+import io.javalin.http.Context;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+
+public class StatusController
+{
+    private final EntityManagerFactory emf;
+    private final Map<String, Supplier<Map<String, Number>>> sources = new LinkedHashMap<>();
+    private final MetricsRegistry metrics = MetricsRegistry.getInstance();
+    private static final Logger logger = LoggerFactory.getLogger(StatusController.class);
+
+    public StatusController(EntityManagerFactory emf)
+    {
+        this.emf = emf;
+    }
+
+    // Components with runtime stats (caches, limiters, ...) are registered once at startup
+    public StatusController register(String name, Supplier<Map<String, Number>> stats)
+    {
+        sources.put(name, stats);
+        return this;
+    }
+
+    public void getAll(Context ctx)
+    {
+        Map<String, Object> status = new LinkedHashMap<>();
+        sources.forEach((name, stats) -> status.put(name, stats.get()));
+        ctx.json(status);
+    }
+
+    // Everything in Prometheus' text format: per route request metrics, Hibernate, the DB pool, the JVM,
+    // and every registered status source as gauges
+    public void metrics(Context ctx)
+    {
+        PrometheusWriter writer = new PrometheusWriter();
+        metrics.writeTo(writer);
+        HibernateMetrics.writeTo(writer, emf.unwrap(SessionFactory.class).getStatistics());
+        try
+        {
+            PoolStats pool = HibernateConfig.getPoolStats(emf);
+            writer.gauge("db_pool_active_connections", "Connections in use", pool.active());
+            writer.gauge("db_pool_idle_connections", "Idle connections", pool.idle());
+            writer.gauge("db_pool_total_connections", "Open connections", pool.total());
+            writer.gauge("db_pool_threads_awaiting", "Threads waiting for a connection", pool.threadsAwaiting());
+            writer.gauge("db_pool_max_connections", "Maximum pool size", pool.maxPoolSize());
+        }
+        catch (Exception ex)
+        {
+            logger.debug("Pool stats are not available", ex);
+        }
+        JvmMetrics.writeTo(writer);
+        sources.forEach((name, stats) -> stats.get().forEach((key, value) -> {
+            String metric = "hotelapi_" + PrometheusWriter.sanitize(name) + "_" + PrometheusWriter.sanitize(key);
+            writer.gauge(metric, name + " " + key, value.doubleValue());
+        }));
+        ctx.contentType(PrometheusWriter.CONTENT_TYPE).result(writer.toString());
+    }
+
+    // Shows the DB pool next to Jetty's thread pool, so the two can be sized against each other
+    public void pool(Context ctx)
+    {
+        try
+        {
+            Map<String, Object> status = new LinkedHashMap<>();
+            status.put("db", HibernateConfig.getPoolStats(emf));
+            status.put("server", ApplicationConfig.getInstance().getServerThreadStats());
+            ctx.json(status);
+        }
+        catch (Exception ex)
+        {
+            logger.error("Error reading pool stats", ex);
+            ctx.status(503).json(new ErrorMessage(503, "Pool stats are not available"));
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package dat.dao;
+
+import dat.dto.BookingDTO;
+import dat.entities.Booking;
+import dat.entities.Room;
+import dat.exceptions.BookingConflictException;
+import dat.exceptions.DaoException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.LockModeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class BookingDAO extends GenericDAO implements IBookingDAO
+{
+    private final Logger logger = LoggerFactory.getLogger(BookingDAO.class);
+
+    public BookingDAO(EntityManagerFactory emf)
+    {
+        super(emf);
+    }
+
+    // The room row is locked for the check and the insert, so two bookings for the same room are never both
+    // accepted, even when they come through different instances of the API
+    @Override
+    public BookingDTO createBooking(Long roomId, String username, LocalDate checkIn, LocalDate checkOut)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            Room room = em.find(Room.class, roomId, LockModeType.PESSIMISTIC_WRITE);
+            if (room == null)
+            {
+                em.getTransaction().rollback();
+                throw new EntityNotFoundException("No room found with id " + roomId);
+            }
+            long overlapping = em.createNamedQuery("Booking.overlapping", Long.class)
+                    .setParameter("roomId", roomId)
+                    .setParameter("checkIn", checkIn)
+                    .setParameter("checkOut", checkOut)
+                    .getSingleResult();
+            if (overlapping > 0)
+            {
+                em.getTransaction().rollback();
+                throw new BookingConflictException("Room " + roomId + " is already booked between " + checkIn + " and " + checkOut);
+            }
+            Booking booking = new Booking(room, username, checkIn, checkOut);
+            em.persist(booking);
+            em.getTransaction().commit();
+            return new BookingDTO(booking.getId(), roomId, room.getHotel().getId(), username, checkIn, checkOut);
+        }
+        catch (EntityNotFoundException | BookingConflictException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error creating booking", e);
+            throw new DaoException("Error persisting object to db. ", e);
+        }
+    }
+
+    @Override
+    public BookingDTO getBooking(Long id)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            List<BookingDTO> found = em.createNamedQuery("Booking.byId", BookingDTO.class)
+                    .setParameter("id", id)
+                    .getResultList();
+            if (found.isEmpty())
+            {
+                throw new EntityNotFoundException("No booking found with id " + id);
+            }
+            return found.get(0);
+        }
+        catch (EntityNotFoundException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading booking from db", e);
+            throw new DaoException("Error reading object from db", e);
+        }
+    }
+
+    @Override
+    public List<BookingDTO> getBookingsForUser(String username)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            return em.createNamedQuery("Booking.byUser", BookingDTO.class)
+                    .setParameter("username", username)
+                    .getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading bookings from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    // Everything the availability index needs, as DTOs so that no entities are loaded at startup
+    @Override
+    public List<BookingDTO> getBookingsEndingAfter(LocalDate from)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            return em.createNamedQuery("Booking.endingAfter", BookingDTO.class)
+                    .setParameter("from", from)
+                    .getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading bookings from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    @Override
+    // One DELETE statement. A booking already cancelled by a concurrent request counts as not found
+    public void deleteBooking(Long id)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            int deleted = em.createNamedQuery("Booking.deleteById").setParameter("id", id).executeUpdate();
+            if (deleted == 0)
+            {
+                em.getTransaction().rollback();
+                throw new EntityNotFoundException("No booking found with id " + id);
+            }
+            em.getTransaction().commit();
+        }
+        catch (EntityNotFoundException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error deleting booking", e);
+            throw new DaoException("Error deleting object. ", e);
+        }
+    }
+}
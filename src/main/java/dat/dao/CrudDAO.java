@@ -1,6 +1,7 @@
 package dat.dao;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface CrudDAO
 {
@@ -9,6 +10,9 @@ public interface CrudDAO
 
     <T> T getById(Class<T> type, Object id);
     <T> List<T> getAll(Class<T> type);
+    <T> boolean exists(Class<T> type);
+    <T> List<T> getPage(Class<T> type, Object afterId, int limit);
+    <T> Stream<T> streamAll(Class<T> type);
 
     <T> T update(T object);
     <T> List<T> update(List<T> objects);
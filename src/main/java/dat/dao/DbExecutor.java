@@ -0,0 +1,28 @@
+package dat.dao;
+
+import dat.config.AppSettings;
+import dat.utils.BoundedExecutor;
+
+// Runs DAO calls for the async endpoints, so Jetty's threads are free while a query is on its way to the database.
+// It has as many threads as the connection pool has connections, so work waits in this queue rather than in the pool.
+public class DbExecutor extends BoundedExecutor
+{
+    private static DbExecutor instance;
+
+    public DbExecutor(int threads, int queueCapacity)
+    {
+        super("db", threads, queueCapacity);
+    }
+
+    public static synchronized DbExecutor getInstance()
+    {
+        if (instance == null)
+        {
+            AppSettings settings = AppSettings.getInstance();
+            instance = new DbExecutor(
+                    settings.getInt("DB_POOL_MAX_SIZE", 10),
+                    settings.getInt("DB_EXECUTOR_QUEUE_CAPACITY", 1000));
+        }
+        return instance;
+    }
+}
@@ -1,23 +1,33 @@
 package dat.dao;
 
+import dat.config.HibernateConfig;
 import dat.exceptions.DaoException;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class GenericDAO implements CrudDAO
 {
+    private static final int STREAM_FETCH_SIZE = 500;
     protected final EntityManagerFactory emf;
+    private final NamedQueryRegistry namedQueries;
     private final Logger logger = LoggerFactory.getLogger(GenericDAO.class);
 
     public GenericDAO(EntityManagerFactory emf)
     {
         this.emf = emf;
+        this.namedQueries = new NamedQueryRegistry(emf);
     }
 
     public <T> T create(T object)
@@ -27,6 +37,7 @@ public class GenericDAO implements CrudDAO
             em.getTransaction().begin();
             em.persist(object);
             em.getTransaction().commit();
+            onWrite(object);
             return object;
         }
         catch (Exception e)
@@ -41,11 +52,19 @@ public class GenericDAO implements CrudDAO
         try (EntityManager em = emf.createEntityManager())
         {
             em.getTransaction().begin();
+            int count = 0;
             for (T object : objects)
             {
                 em.persist(object);
+                if (++count % HibernateConfig.JDBC_BATCH_SIZE == 0)
+                {
+                    // Send the batch and let go of the entities so the persistence context stays small
+                    em.flush();
+                    em.clear();
+                }
             }
             em.getTransaction().commit();
+            objects.forEach(this::onWrite);
             return objects;
         }
         catch (Exception e)
@@ -57,7 +76,7 @@ public class GenericDAO implements CrudDAO
 
     public <T> T getById(Class<T> type, Object id)
     {
-        try (EntityManager em = emf.createEntityManager())
+        try (EntityManager em = createReadOnlyEntityManager())
         {
             T entity = em.find(type, id);
             if (entity == null)
@@ -76,14 +95,32 @@ public class GenericDAO implements CrudDAO
     @Override
     public <T> List<T> getAll(Class<T> type) throws DaoException
     {
-        try (EntityManager em = emf.createEntityManager())
+        try (EntityManager em = createReadOnlyEntityManager())
         {
-            List<T> entities = em.createQuery("SELECT t FROM " + type.getSimpleName() + " t", type).getResultList();
+            List<T> entities = cacheable(namedQueries.create(em, type, NamedQueryRegistry.Kind.ALL, type), type).getResultList();
             if (entities.isEmpty())
             {
                 throw new EntityNotFoundException("No entities found in db");
             }
-            return em.createQuery("SELECT t FROM " + type.getSimpleName() + " t", type).getResultList();
+            return entities;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading objects from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    // Stops at the first row instead of counting them all
+    @Override
+    public <T> boolean exists(Class<T> type) throws DaoException
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            return !namedQueries.create(em, type, NamedQueryRegistry.Kind.EXISTS, Integer.class)
+                    .setMaxResults(1)
+                    .getResultList()
+                    .isEmpty();
         }
         catch (Exception e)
         {
@@ -92,6 +129,88 @@ public class GenericDAO implements CrudDAO
         }
     }
 
+    @Override
+    public <T> List<T> getPage(Class<T> type, Object afterId, int limit) throws DaoException
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            TypedQuery<T> query;
+            if (afterId == null)
+            {
+                query = namedQueries.create(em, type, NamedQueryRegistry.Kind.ALL_BY_ID, type);
+            }
+            else
+            {
+                query = namedQueries.create(em, type, NamedQueryRegistry.Kind.AFTER_ID, type)
+                        .setParameter("afterId", afterId);
+            }
+            return cacheable(query, type).setMaxResults(limit).getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading page of objects from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    // The returned stream holds an open EntityManager and a database cursor, so it must be closed by the caller
+    @Override
+    public <T> Stream<T> streamAll(Class<T> type) throws DaoException
+    {
+        EntityManager em = createReadOnlyEntityManager();
+        try
+        {
+            // PostgreSQL only fetches in chunks from a cursor when inside a transaction
+            em.getTransaction().begin();
+            return namedQueries.create(em, type, NamedQueryRegistry.Kind.ALL_BY_ID, type)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .getResultStream()
+                    .map(entity -> {
+                        em.detach(entity); // keep the persistence context from growing with the result
+                        return entity;
+                    })
+                    .onClose(() -> {
+                        if (em.getTransaction().isActive())
+                        {
+                            em.getTransaction().rollback();
+                        }
+                        em.close();
+                    });
+        }
+        catch (Exception e)
+        {
+            em.close();
+            logger.error("Error streaming objects from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    // For reads: entities are loaded read-only, so no snapshots are kept for dirty checking, and nothing is flushed
+    protected EntityManager createReadOnlyEntityManager()
+    {
+        EntityManager em = emf.createEntityManager();
+        Session session = em.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+        return em;
+    }
+
+    // Results of list queries over @Cacheable entities go in the query cache when it is enabled
+    private <T> TypedQuery<T> cacheable(TypedQuery<T> query, Class<?> type)
+    {
+        if (type.isAnnotationPresent(Cacheable.class))
+        {
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+        }
+        return query;
+    }
+
+    // Called after every committed write, so subclasses can keep derived state such as caches current
+    protected void onWrite(Object entity)
+    {
+    }
+
     public <T> T update(T object)
     {
         try (EntityManager em = emf.createEntityManager())
@@ -99,6 +218,7 @@ public class GenericDAO implements CrudDAO
             em.getTransaction().begin();
             T updatedEntity = em.merge(object);
             em.getTransaction().commit();
+            onWrite(updatedEntity);
             return updatedEntity;
         }
         catch (Exception e)
@@ -119,6 +239,7 @@ public class GenericDAO implements CrudDAO
                 updatedObjects.add(em.merge(object));
             }
             em.getTransaction().commit();
+            updatedObjects.forEach(this::onWrite);
             return updatedObjects;
         }
         catch (Exception e)
@@ -135,6 +256,7 @@ public class GenericDAO implements CrudDAO
             em.getTransaction().begin();
             em.remove(object);
             em.getTransaction().commit();
+            onWrite(object);
         }
         catch (Exception e)
         {
@@ -151,6 +273,7 @@ public class GenericDAO implements CrudDAO
             T object = em.find(type, id);
             em.remove(object);
             em.getTransaction().commit();
+            onWrite(object);
         }
         catch (Exception e)
         {
@@ -0,0 +1,103 @@
+package dat.dao;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dat.config.AppSettings;
+import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
+import dat.utils.CacheStatsReader;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Read-through cache for HotelDAO. Caffeine evicts by W-TinyLFU, so frequently read hotels survive one-off scans.
+// It holds DTOs rather than entities, so nothing shared between requests is tied to a persistence context.
+public class HotelCache
+{
+    private static final long LISTING_MAX_SIZE = 1000;
+    private final Cache<Long, HotelDTO> hotels;
+    private final Cache<Long, List<RoomDTO>> rooms;
+    private final Cache<String, List<HotelDTO>> listings;
+
+    public HotelCache(long maximumSize, Duration timeToLive)
+    {
+        hotels = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        rooms = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        listings = Caffeine.newBuilder()
+                .maximumSize(LISTING_MAX_SIZE)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public static HotelCache fromSettings()
+    {
+        AppSettings settings = AppSettings.getInstance();
+        long maximumSize = settings.getLong("HOTEL_CACHE_MAX_SIZE", 10000);
+        long timeToLive = settings.getLong("HOTEL_CACHE_TTL_SECONDS", 300);
+        return new HotelCache(maximumSize, Duration.ofSeconds(timeToLive));
+    }
+
+    public HotelDTO getHotel(Long id, Supplier<HotelDTO> loader)
+    {
+        return hotels.get(id, key -> loader.get());
+    }
+
+    public List<RoomDTO> getRooms(Long hotelId, Supplier<List<RoomDTO>> loader)
+    {
+        return rooms.get(hotelId, key -> List.copyOf(loader.get()));
+    }
+
+    public List<HotelDTO> getListing(String key, Supplier<List<HotelDTO>> loader)
+    {
+        return listings.get(key, k -> List.copyOf(loader.get()));
+    }
+
+    // Any change to a hotel can move it in or out of every listing, so those are dropped as a whole
+    public void invalidateHotel(Long id)
+    {
+        if (id == null)
+        {
+            hotels.invalidateAll();
+            rooms.invalidateAll();
+        }
+        else
+        {
+            hotels.invalidate(id);
+            rooms.invalidate(id);
+        }
+        listings.invalidateAll();
+    }
+
+    public void invalidateAll()
+    {
+        hotels.invalidateAll();
+        rooms.invalidateAll();
+        listings.invalidateAll();
+    }
+
+    public Map<String, Number> getHotelStats()
+    {
+        return CacheStatsReader.read(hotels);
+    }
+
+    public Map<String, Number> getRoomStats()
+    {
+        return CacheStatsReader.read(rooms);
+    }
+
+    public Map<String, Number> getListingStats()
+    {
+        return CacheStatsReader.read(listings);
+    }
+}
@@ -1,38 +1,276 @@
 package dat.dao;
 
+import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
 import dat.entities.Hotel;
 import dat.entities.Room;
+import dat.exceptions.DaoException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import jakarta.persistence.OptimisticLockException;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.jpa.SpecHints;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
 
 public class HotelDAO extends GenericDAO implements IHotelDAO
 {
+    private static final String ROOMS_GRAPH = "Hotel.rooms";
+    private static final int STREAM_FETCH_SIZE = 500;
+    private final HotelCache cache;
+    private final Logger logger = LoggerFactory.getLogger(HotelDAO.class);
+
     public HotelDAO(EntityManagerFactory emf)
+    {
+        this(emf, HotelCache.fromSettings());
+    }
+
+    public HotelDAO(EntityManagerFactory emf, HotelCache cache)
     {
         super(emf);
+        this.cache = cache;
+    }
+
+    public HotelCache getCache()
+    {
+        return cache;
     }
 
     public List<Hotel> getAllHotels()
     {
-        return super.getAll(Hotel.class);
+        return getAllHotels(true);
     }
 
+    // A summary is a single query without rooms; otherwise the rooms are joined in the same query
+    @Override
+    public List<Hotel> getAllHotels(boolean summary)
+    {
+        if (summary)
+        {
+            return super.getAll(Hotel.class);
+        }
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            return em.createNamedQuery("Hotel.withRooms", Hotel.class).getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading hotels with rooms from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    @Override
+    public List<Hotel> getHotelsAfter(Long afterId, int limit)
+    {
+        return super.getPage(Hotel.class, afterId, limit);
+    }
+
+    // The DTO reads below select straight into HotelDTO and RoomDTO, so no entities are loaded, tracked or mapped.
+    // They are what the API serves, and what HotelCache keeps.
+    @Override
+    public List<HotelDTO> getHotelDtosAfter(Long afterId, int limit)
+    {
+        return cache.getListing("page:" + afterId + ":" + limit, () -> loadHotelDtoPage(afterId, limit));
+    }
+
+    private List<HotelDTO> loadHotelDtoPage(Long afterId, int limit)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            TypedQuery<HotelDTO> query = afterId == null
+                    ? em.createNamedQuery("Hotel.dtoAll", HotelDTO.class)
+                    : em.createNamedQuery("Hotel.dtoAfterId", HotelDTO.class).setParameter("afterId", afterId);
+            return query.setMaxResults(limit).getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading page of hotels from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    @Override
+    public Stream<HotelDTO> streamHotelDtos()
+    {
+        EntityManager em = createReadOnlyEntityManager();
+        try
+        {
+            // PostgreSQL only fetches in chunks from a cursor when inside a transaction
+            em.getTransaction().begin();
+            return em.createNamedQuery("Hotel.dtoAll", HotelDTO.class)
+                    .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                    .getResultStream()
+                    .onClose(() -> {
+                        if (em.getTransaction().isActive())
+                        {
+                            em.getTransaction().rollback();
+                        }
+                        em.close();
+                    });
+        }
+        catch (Exception e)
+        {
+            em.close();
+            logger.error("Error streaming hotels from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    public Stream<Hotel> streamHotels()
+    {
+        return super.streamAll(Hotel.class);
+    }
+
+    @Override
     public Hotel getHotelById(Long id)
     {
         return super.getById(Hotel.class, id);
     }
 
+    @Override
+    public Hotel getHotelWithRooms(Long id)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            Hotel hotel = findWithRooms(em, id);
+            if (hotel == null)
+            {
+                throw new EntityNotFoundException("No entity found with id " + id);
+            }
+            return hotel;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading hotel with rooms from db", e);
+            throw new DaoException("Error reading object from db", e);
+        }
+    }
+
+    @Override
+    public HotelDTO getHotelDto(Long id)
+    {
+        return cache.getHotel(id, () -> loadHotelDto(id));
+    }
+
+    // The hotel alone. Rooms are not serialized with a hotel, so they are read separately by getRoomDtos
+    private HotelDTO loadHotelDto(Long id)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            List<HotelDTO> found = em.createNamedQuery("Hotel.dtoById", HotelDTO.class)
+                    .setParameter("id", id)
+                    .getResultList();
+            if (found.isEmpty())
+            {
+                throw new EntityNotFoundException("No entity found with id " + id);
+            }
+            return found.get(0);
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading hotel from db", e);
+            throw new DaoException("Error reading object from db", e);
+        }
+    }
+
+    @Override
+    public List<RoomDTO> getRoomDtos(Long hotelId)
+    {
+        return cache.getRooms(hotelId, () -> loadRoomDtos(hotelId));
+    }
+
+    // A hotel without rooms and a missing hotel both give no rows, so only then is the hotel looked up
+    private List<RoomDTO> loadRoomDtos(Long hotelId)
+    {
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            List<RoomDTO> rooms = em.createNamedQuery("Room.dtoByHotel", RoomDTO.class)
+                    .setParameter("hotelId", hotelId)
+                    .getResultList();
+            if (rooms.isEmpty() && em.createNamedQuery("Hotel.version", Long.class).setParameter("id", hotelId).getResultList().isEmpty())
+            {
+                throw new EntityNotFoundException("No entity found with id " + hotelId);
+            }
+            return rooms;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading rooms from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    // Rooms are cascaded, so a hotel and its rooms go in as one transaction
+    @Override
     public Hotel createHotel(Hotel hotel)
     {
         return super.create(hotel);
     }
 
+    @Override
+    public List<Hotel> createHotels(List<Hotel> hotels)
+    {
+        return super.create(hotels);
+    }
+
+    @Override
     public Hotel updateHotel(Hotel hotel)
     {
         return super.update(hotel);
     }
 
+    // One UPDATE statement, without loading the hotel. Null fields are left unchanged, and with an expected version
+    // the update only happens if nobody else has changed the hotel in the meantime.
+    @Override
+    public void updateHotelDetails(Long id, String name, String address, Long expectedVersion)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            Query update = em.createNamedQuery(expectedVersion == null ? "Hotel.updateDetails" : "Hotel.updateDetailsIfVersion")
+                    .setParameter("name", name)
+                    .setParameter("address", address)
+                    .setParameter("now", Instant.now())
+                    .setParameter("id", id);
+            if (expectedVersion != null)
+            {
+                update.setParameter("version", expectedVersion);
+            }
+            int updated = update.executeUpdate();
+            if (updated == 0)
+            {
+                em.getTransaction().rollback();
+                boolean exists = !em.createNamedQuery("Hotel.version", Long.class).setParameter("id", id).getResultList().isEmpty();
+                if (!exists)
+                {
+                    throw new EntityNotFoundException("No entity found with id " + id);
+                }
+                throw new OptimisticLockException("Hotel " + id + " is no longer at version " + expectedVersion);
+            }
+            em.getTransaction().commit();
+            cache.invalidateHotel(id);
+        }
+        catch (EntityNotFoundException | OptimisticLockException e)
+        {
+            throw e;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error updating hotel", e);
+            throw new DaoException("Error updating object. ", e);
+        }
+    }
+
+    @Override
     public void deleteHotel(Long id)
     {
         super.delete(Hotel.class, id);
@@ -41,22 +279,75 @@ public class HotelDAO extends GenericDAO implements IHotelDAO
     @Override
     public Hotel addRoom(Hotel hotel, Room room)
     {
-        hotel.addRoom(room);
-        return update(hotel);
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            Hotel managedHotel = findWithRooms(em, hotel.getId());
+            managedHotel.addRoom(room);
+            em.persist(room);
+            em.getTransaction().commit();
+            cache.invalidateHotel(hotel.getId());
+            return managedHotel;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error adding room to hotel", e);
+            throw new DaoException("Error adding room to hotel. ", e);
+        }
     }
 
     @Override
     public Hotel removeRoom(Hotel hotel, Room room)
     {
-        hotel.removeRoom(room);
-        Hotel updatedHotel = update(hotel);
-        delete(room);
-        return updatedHotel;
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            Hotel managedHotel = findWithRooms(em, hotel.getId());
+            Room managedRoom = em.find(Room.class, room.getId());
+            managedHotel.removeRoom(managedRoom);
+            em.remove(managedRoom);
+            em.getTransaction().commit();
+            cache.invalidateHotel(hotel.getId());
+            return managedHotel;
+        }
+        catch (Exception e)
+        {
+            logger.error("Error removing room from hotel", e);
+            throw new DaoException("Error removing room from hotel. ", e);
+        }
     }
 
     @Override
     public List<Room> getRoomsForHotel(Hotel hotel)
     {
-        return hotel.getRooms();
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            return em.createNamedQuery("Room.byHotel", Room.class)
+                    .setParameter("hotelId", hotel.getId())
+                    .getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error reading rooms from db", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+
+    @Override
+    protected void onWrite(Object entity)
+    {
+        if (entity instanceof Hotel hotel)
+        {
+            cache.invalidateHotel(hotel.getId());
+        }
+        else if (entity instanceof Room room)
+        {
+            cache.invalidateHotel(room.getHotel() == null ? null : room.getHotel().getId());
+        }
+    }
+
+    private Hotel findWithRooms(EntityManager em, Long id)
+    {
+        return em.find(Hotel.class, id, Map.of(SpecHints.HINT_SPEC_FETCH_GRAPH, em.getEntityGraph(ROOMS_GRAPH)));
     }
 }
@@ -0,0 +1,15 @@
+package dat.dao;
+
+import dat.dto.BookingDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface IBookingDAO extends CrudDAO
+{
+    BookingDTO createBooking(Long roomId, String username, LocalDate checkIn, LocalDate checkOut);
+    BookingDTO getBooking(Long id);
+    List<BookingDTO> getBookingsForUser(String username);
+    List<BookingDTO> getBookingsEndingAfter(LocalDate from);
+    void deleteBooking(Long id);
+}
@@ -1,13 +1,28 @@
 package dat.dao;
 
+import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
 import dat.entities.Hotel;
 import dat.entities.Room;
 
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface IHotelDAO
+public interface IHotelDAO extends CrudDAO
 {
+    List<Hotel> getAllHotels(boolean summary);
+    List<Hotel> getHotelsAfter(Long afterId, int limit);
     Hotel getHotelById(Long id);
+    Hotel getHotelWithRooms(Long id);
+    List<HotelDTO> getHotelDtosAfter(Long afterId, int limit);
+    HotelDTO getHotelDto(Long id);
+    List<RoomDTO> getRoomDtos(Long hotelId);
+    Stream<HotelDTO> streamHotelDtos();
+    Hotel createHotel(Hotel hotel);
+    List<Hotel> createHotels(List<Hotel> hotels);
+    Hotel updateHotel(Hotel hotel);
+    void updateHotelDetails(Long id, String name, String address, Long expectedVersion);
+    void deleteHotel(Long id);
     Hotel addRoom(Hotel hotel, Room room);
     Hotel removeRoom(Hotel hotel, Room room);
     List<Room> getRoomsForHotel(Hotel hotel);
@@ -0,0 +1,11 @@
+package dat.dao;
+
+import dat.dto.RoomDTO;
+import dat.enums.RoomSort;
+
+import java.util.List;
+
+public interface IRoomDAO extends CrudDAO
+{
+    List<RoomDTO> searchRooms(Double minPrice, Double maxPrice, Long hotelId, RoomSort sort, int limit);
+}
@@ -0,0 +1,51 @@
+package dat.dao;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registers the generic JPQL of GenericDAO as named queries the first time an entity type uses them,
+// so the query string is built and parsed once per type instead of on every call
+class NamedQueryRegistry
+{
+    enum Kind
+    {
+        ALL("SELECT t FROM %s t"),
+        ALL_BY_ID("SELECT t FROM %s t ORDER BY t.id"),
+        AFTER_ID("SELECT t FROM %s t WHERE t.id > :afterId ORDER BY t.id"),
+        EXISTS("SELECT 1 FROM %s t");
+
+        private final String jpql;
+
+        Kind(String jpql)
+        {
+            this.jpql = jpql;
+        }
+
+        String jpqlFor(Class<?> entityType)
+        {
+            return String.format(jpql, entityType.getSimpleName());
+        }
+    }
+
+    private final EntityManagerFactory emf;
+    private final Map<String, String> registered = new ConcurrentHashMap<>();
+
+    NamedQueryRegistry(EntityManagerFactory emf)
+    {
+        this.emf = emf;
+    }
+
+    <T> TypedQuery<T> create(EntityManager em, Class<?> entityType, Kind kind, Class<T> resultType)
+    {
+        String name = entityType.getSimpleName() + "." + kind.name();
+        registered.computeIfAbsent(name, n -> {
+            emf.addNamedQuery(n, em.createQuery(kind.jpqlFor(entityType)));
+            return n;
+        });
+        return em.createNamedQuery(name, resultType);
+    }
+}
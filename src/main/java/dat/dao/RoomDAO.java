@@ -0,0 +1,68 @@
+package dat.dao;
+
+import dat.dto.RoomDTO;
+import dat.enums.RoomSort;
+import dat.exceptions.DaoException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+public class RoomDAO extends GenericDAO implements IRoomDAO
+{
+    private final Logger logger = LoggerFactory.getLogger(RoomDAO.class);
+
+    public RoomDAO(EntityManagerFactory emf)
+    {
+        super(emf);
+    }
+
+    // One query straight into RoomDTOs, so no rooms or hotels are loaded into the persistence context.
+    // With a hotel it is served by the (hotel_id, price) index, without one by the price index.
+    // Only the filters that are given end up in the query, which keeps the number of distinct query plans small.
+    @Override
+    public List<RoomDTO> searchRooms(Double minPrice, Double maxPrice, Long hotelId, RoomSort sort, int limit)
+    {
+        StringBuilder jpql = new StringBuilder("SELECT new dat.dto.RoomDTO(r.id, r.hotel.id, r.roomNumber, r.price) FROM Room r WHERE 1 = 1");
+        if (hotelId != null)
+        {
+            jpql.append(" AND r.hotel.id = :hotelId");
+        }
+        if (minPrice != null)
+        {
+            jpql.append(" AND r.price >= :minPrice");
+        }
+        if (maxPrice != null)
+        {
+            jpql.append(" AND r.price <= :maxPrice");
+        }
+        // id as tie breaker, so rooms with the same price come back in a stable order
+        jpql.append(sort == RoomSort.PRICE ? " ORDER BY r.price, r.id" : " ORDER BY r.id");
+
+        try (EntityManager em = createReadOnlyEntityManager())
+        {
+            TypedQuery<RoomDTO> query = em.createQuery(jpql.toString(), RoomDTO.class).setMaxResults(limit);
+            if (hotelId != null)
+            {
+                query.setParameter("hotelId", hotelId);
+            }
+            if (minPrice != null)
+            {
+                query.setParameter("minPrice", minPrice);
+            }
+            if (maxPrice != null)
+            {
+                query.setParameter("maxPrice", maxPrice);
+            }
+            return query.getResultList();
+        }
+        catch (Exception e)
+        {
+            logger.error("Error searching rooms", e);
+            throw new DaoException("Error reading objects from db", e);
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package dat.dao;
 
+import dat.config.AppSettings;
 import dat.entities.UserAccount;
 import dat.enums.Roles;
 import dat.exceptions.DaoException;
 import dat.exceptions.ValidationException;
+import dat.security.HashingExecutor;
 import dk.bugelhartmann.UserDTO;
 import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
+import org.mindrot.jbcrypt.BCrypt;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 public class SecurityDAO extends GenericDAO implements ISecurityDAO
 {
+    private static final int DEFAULT_BCRYPT_COST = 10;
     private final Logger logger = LoggerFactory.getLogger(SecurityDAO.class);
+    private final int bcryptCost;
 
     public SecurityDAO(EntityManagerFactory emf)
+    {
+        this(emf, AppSettings.getInstance().getInt("BCRYPT_COST", DEFAULT_BCRYPT_COST));
+    }
+
+    public SecurityDAO(EntityManagerFactory emf, int bcryptCost)
     {
         super(emf);
+        if (bcryptCost < 4 || bcryptCost > 31)
+        {
+            throw new IllegalArgumentException("BCRYPT_COST must be between 4 and 31, was " + bcryptCost);
+        }
+        this.bcryptCost = bcryptCost;
     }
 
     @Override
@@ -31,6 +48,12 @@ public class SecurityDAO extends GenericDAO implements ISecurityDAO
             logger.error("{} {}", userAccount.getUsername(), userAccount.getPassword());
             throw new ValidationException("Password does not match");
         }
+        // An unreadable cost is left alone rather than guessed at
+        int cost = userAccount.getPasswordCost();
+        if (cost >= 0 && cost != bcryptCost)
+        {
+            rehashPassword(userAccount, password);
+        }
         return new UserDTO(userAccount.getUsername(), userAccount.getRoles()
                                                     .stream()
                                                     .map(Roles::toString)
@@ -38,10 +61,36 @@ public class SecurityDAO extends GenericDAO implements ISecurityDAO
 
     }
 
+    // The plain password is only available at login, so that is when hashes with an old cost are replaced.
+    // This runs after the response has been sent; if the hashing queue is full it is simply tried at the next login.
+    CompletableFuture<Boolean> rehashPassword(UserAccount userAccount, String password)
+    {
+        String oldHash = userAccount.getPassword();
+        return HashingExecutor.getInstance().submit(() -> {
+            String newHash = BCrypt.hashpw(password, BCrypt.gensalt(bcryptCost));
+            try (EntityManager em = emf.createEntityManager())
+            {
+                em.getTransaction().begin();
+                // Only replace the hash we verified, so a password changed in the meantime is left alone
+                int updated = em.createQuery("UPDATE UserAccount u SET u.password = :newHash WHERE u.username = :username AND u.password = :oldHash")
+                        .setParameter("newHash", newHash)
+                        .setParameter("username", userAccount.getUsername())
+                        .setParameter("oldHash", oldHash)
+                        .executeUpdate();
+                em.getTransaction().commit();
+                logger.info("Password rehashed with cost {} (username {})", bcryptCost, userAccount.getUsername());
+                return updated == 1;
+            }
+        }).exceptionally(e -> {
+            logger.warn("Could not rehash password (username {}): {}", userAccount.getUsername(), e.getMessage());
+            return false;
+        });
+    }
+
     @Override
     public UserAccount createUser(String username, String password)
     {
-        UserAccount userAccount = new UserAccount(username, password);
+        UserAccount userAccount = new UserAccount(username, password, bcryptCost);
         userAccount.addRole(Roles.USER);
         try
         {
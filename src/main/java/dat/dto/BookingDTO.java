@@ -0,0 +1,10 @@
+package dat.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+
+public record BookingDTO(Long id, Long roomId, Long hotelId, String username,
+                         @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDate checkIn,
+                         @JsonFormat(shape = JsonFormat.Shape.STRING) LocalDate checkOut) {
+}
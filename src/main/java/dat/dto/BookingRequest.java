@@ -0,0 +1,6 @@
+package dat.dto;
+
+import java.time.LocalDate;
+
+public record BookingRequest(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+}
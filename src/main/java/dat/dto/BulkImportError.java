@@ -0,0 +1,4 @@
+package dat.dto;
+
+public record BulkImportError(long index, int line, int column, String message) {
+}
@@ -0,0 +1,37 @@
+package dat.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@ToString
+public class BulkImportResult
+{
+    // Keeps the response small for uploads where every record is bad
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private int accepted;
+    private int rejected;
+    private final List<BulkImportError> errors = new ArrayList<>();
+
+    public void accept(int count)
+    {
+        accepted += count;
+    }
+
+    public void reject(long index, int line, int column, String message)
+    {
+        rejected++;
+        addError(index, line, column, message);
+    }
+
+    public void addError(long index, int line, int column, String message)
+    {
+        if (errors.size() < MAX_REPORTED_ERRORS)
+        {
+            errors.add(new BulkImportError(index, line, column, message));
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package dat.dto;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import dat.entities.Hotel;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,14 +21,40 @@ public class HotelDTO
     private Long id;
     private String name;
     private String address;
+    private Long version;
+    @JsonIgnore
+    private Instant lastModified;
     @JsonBackReference
     private List<RoomDTO> rooms = new ArrayList<>();
 
+    public HotelDTO(Long id, String name, String address)
+    {
+        this.id = id;
+        this.name = name;
+        this.address = address;
+    }
+
+    public HotelDTO(Long id, String name, String address, List<RoomDTO> rooms)
+    {
+        this(id, name, address);
+        this.rooms = rooms;
+    }
+
+    // Used by the JPQL constructor expressions in Hotel, which select straight into DTOs
+    public HotelDTO(Long id, String name, String address, Long version, Instant lastModified)
+    {
+        this(id, name, address);
+        this.version = version;
+        this.lastModified = lastModified;
+    }
+
     public HotelDTO(Hotel hotel)
     {
         this.id = hotel.getId();
         this.name = hotel.getName();
         this.address = hotel.getAddress();
+        this.version = hotel.getVersion();
+        this.lastModified = hotel.getLastModified();
         this.rooms = hotel.getRooms().stream().map(RoomDTO::new).toList();
     }
 }
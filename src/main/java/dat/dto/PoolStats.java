@@ -0,0 +1,4 @@
+package dat.dto;
+
+public record PoolStats(int active, int idle, int total, int threadsAwaiting, int minIdle, int maxPoolSize) {
+}
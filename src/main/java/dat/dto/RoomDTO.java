@@ -7,6 +7,8 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 
+import java.time.Instant;
+
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -18,6 +20,18 @@ public class RoomDTO
     private Long hotelId;
     private String roomNumber;
     private double price;
+    @JsonIgnore
+    private Long version;
+    @JsonIgnore
+    private Instant lastModified;
+
+    public RoomDTO(Long id, Long hotelId, String roomNumber, double price)
+    {
+        this.id = id;
+        this.hotelId = hotelId;
+        this.roomNumber = roomNumber;
+        this.price = price;
+    }
 
     public RoomDTO(Room room)
     {
@@ -25,5 +39,7 @@ public class RoomDTO
         this.hotelId = room.getHotel().getId();
         this.roomNumber = room.getRoomNumber();
         this.price = room.getPrice();
+        this.version = room.getVersion();
+        this.lastModified = room.getLastModified();
     }
 }
@@ -0,0 +1,51 @@
+package dat.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDate;
+
+// A stay in one room. checkOut is the day the guest leaves, so the booked nights are checkIn up to but not including checkOut.
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@ToString
+@EqualsAndHashCode
+@Table(indexes = @Index(name = "idx_booking_room_dates", columnList = "room_id, checkIn, checkOut"))
+@NamedQuery(name = "Booking.overlapping", query = "SELECT COUNT(b) FROM Booking b WHERE b.room.id = :roomId " +
+        "AND b.checkIn < :checkOut AND b.checkOut > :checkIn")
+@NamedQuery(name = "Booking.byId", query = "SELECT new dat.dto.BookingDTO(b.id, b.room.id, b.room.hotel.id, b.username, b.checkIn, b.checkOut) " +
+        "FROM Booking b WHERE b.id = :id")
+@NamedQuery(name = "Booking.byUser", query = "SELECT new dat.dto.BookingDTO(b.id, b.room.id, b.room.hotel.id, b.username, b.checkIn, b.checkOut) " +
+        "FROM Booking b WHERE b.username = :username ORDER BY b.checkIn, b.id")
+@NamedQuery(name = "Booking.endingAfter", query = "SELECT new dat.dto.BookingDTO(b.id, b.room.id, b.room.hotel.id, b.username, b.checkIn, b.checkOut) " +
+        "FROM Booking b WHERE b.checkOut > :from")
+@NamedQuery(name = "Booking.deleteById", query = "DELETE FROM Booking b WHERE b.id = :id")
+public class Booking
+{
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
+    private Long id;
+    // Bookings go with their room when it is deleted
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "room_id")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Room room;
+    private String username;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+
+    public Booking(Room room, String username, LocalDate checkIn, LocalDate checkOut)
+    {
+        this.room = room;
+        this.username = username;
+        this.checkIn = checkIn;
+        this.checkOut = checkOut;
+    }
+}
@@ -1,10 +1,17 @@
 package dat.entities;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import dat.dto.HotelDTO;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.jpa.HibernateHints;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,16 +22,43 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = "Hotel.rooms", attributeNodes = @NamedAttributeNode("rooms"))
+@NamedQuery(name = "Hotel.withRooms", query = "SELECT DISTINCT h FROM Hotel h LEFT JOIN FETCH h.rooms ORDER BY h.id",
+        hints = @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+@NamedQuery(name = "Hotel.updateDetails", query = "UPDATE Hotel h SET h.name = COALESCE(:name, h.name), " +
+        "h.address = COALESCE(:address, h.address), h.version = h.version + 1, h.lastModified = :now WHERE h.id = :id")
+@NamedQuery(name = "Hotel.updateDetailsIfVersion", query = "UPDATE Hotel h SET h.name = COALESCE(:name, h.name), " +
+        "h.address = COALESCE(:address, h.address), h.version = h.version + 1, h.lastModified = :now WHERE h.id = :id AND h.version = :version")
+@NamedQuery(name = "Hotel.version", query = "SELECT h.version FROM Hotel h WHERE h.id = :id")
+@NamedQuery(name = "Hotel.dtoById", query = "SELECT new dat.dto.HotelDTO(h.id, h.name, h.address, h.version, h.lastModified) " +
+        "FROM Hotel h WHERE h.id = :id")
+@NamedQuery(name = "Hotel.dtoAll", query = "SELECT new dat.dto.HotelDTO(h.id, h.name, h.address, h.version, h.lastModified) " +
+        "FROM Hotel h ORDER BY h.id")
+@NamedQuery(name = "Hotel.dtoAfterId", query = "SELECT new dat.dto.HotelDTO(h.id, h.name, h.address, h.version, h.lastModified) " +
+        "FROM Hotel h WHERE h.id > :afterId ORDER BY h.id")
 public class Hotel
 {
+    // Pooled sequence ids keep JDBC insert batching possible, which IDENTITY columns rule out
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hotel_seq")
+    @SequenceGenerator(name = "hotel_seq", sequenceName = "hotel_seq", allocationSize = 50)
     private Long id;
     private String name;
     private String address;
-    @OneToMany(fetch = FetchType.EAGER, mappedBy = "hotel", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
+    // Loaded only when asked for (see HotelDAO.getHotelWithRooms), and then in batches for several hotels at once
+    @OneToMany(fetch = FetchType.LAZY, mappedBy = "hotel", cascade = {CascadeType.PERSIST, CascadeType.MERGE, CascadeType.REMOVE})
+    @BatchSize(size = 50)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JsonBackReference
     @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Room> rooms = new ArrayList<>();
 
     public Hotel(String name)
@@ -42,7 +76,7 @@ public class Hotel
     {
         this.name = hotelDTO.getName();
         this.address = hotelDTO.getAddress();
-        this.rooms = hotelDTO.getRooms().stream().map(Room::new).toList();
+        hotelDTO.getRooms().stream().map(Room::new).forEach(this::addRoom);
     }
 
     public void addRoom(Room room)
@@ -1,9 +1,15 @@
 package dat.entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import dat.dto.RoomDTO;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
 
 @Entity
 @Getter
@@ -12,17 +18,35 @@ import lombok.*;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+// Room searches filter on hotel and price range and sort by price, see RoomDAO.searchRooms
+@Table(indexes = {
+        @Index(name = "idx_room_hotel_price", columnList = "hotel_id, price"),
+        @Index(name = "idx_room_price", columnList = "price")
+})
+@NamedQuery(name = "Room.byHotel", query = "SELECT r FROM Room r WHERE r.hotel.id = :hotelId ORDER BY r.id")
+@NamedQuery(name = "Room.dtoByHotel", query = "SELECT new dat.dto.RoomDTO(r.id, r.hotel.id, r.roomNumber, r.price, r.version, r.lastModified) " +
+        "FROM Room r WHERE r.hotel.id = :hotelId ORDER BY r.id")
 public class Room
 {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_seq")
+    @SequenceGenerator(name = "room_seq", sequenceName = "room_seq", allocationSize = 50)
     private Long id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "hotel_id")
     @JsonManagedReference
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Hotel hotel;
     private String roomNumber;
     private double price;
+    @Version
+    private Long version;
+    @UpdateTimestamp
+    @JsonIgnore
+    private Instant lastModified;
 
     public Room(String roomNumber)
     {
@@ -33,6 +33,12 @@ public class UserAccount
         this.password = BCrypt.hashpw(userPass, BCrypt.gensalt());
     }
 
+    public UserAccount(String userName, String userPass, int cost)
+    {
+        this.username = userName;
+        this.password = BCrypt.hashpw(userPass, BCrypt.gensalt(cost));
+    }
+
     public UserAccount(String userName, Set<Roles> roleEntityList)
     {
         this.username = userName;
@@ -50,6 +56,23 @@ public class UserAccount
         return BCrypt.checkpw(pw, this.password);
     }
 
+    // The work factor is stored in the hash itself, e.g. $2a$10$... Returns -1 if the hash is not in that form
+    public int getPasswordCost()
+    {
+        if (password == null || password.length() < 7 || password.charAt(0) != '$' || password.charAt(6) != '$')
+        {
+            return -1;
+        }
+        try
+        {
+            return Integer.parseInt(password.substring(4, 6));
+        }
+        catch (NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+
 
     public void addRole(Roles role)
     {
@@ -0,0 +1,7 @@
+package dat.enums;
+
+public enum RoomSort
+{
+    PRICE,
+    ID
+}
\ No newline at end of file
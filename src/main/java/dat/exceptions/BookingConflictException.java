@@ -0,0 +1,11 @@
+package dat.exceptions;
+
+public class BookingConflictException extends RuntimeException
+{
+
+    public BookingConflictException(String msg)
+    {
+        super(msg);
+    }
+
+}
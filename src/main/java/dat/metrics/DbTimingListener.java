@@ -0,0 +1,65 @@
+package dat.metrics;
+
+import dat.config.AppSettings;
+import org.hibernate.SessionEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+// Hibernate creates one of these per session. Every DAO call opens its own EntityManager, so a session is one
+// DAO call: its duration is recorded as such, and its JDBC statements are added to the current request's timings.
+public class DbTimingListener implements SessionEventListener
+{
+    private static final Logger logger = LoggerFactory.getLogger(DbTimingListener.class);
+    private static final long SLOW_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(
+            AppSettings.getInstance().getLong("SLOW_QUERY_THRESHOLD_MS", 200));
+    private final long sessionStart = System.nanoTime();
+    private final RequestTimings timings = RequestTimings.current();
+    private long statementStart;
+    private int statements;
+
+    @Override
+    public void jdbcExecuteStatementStart()
+    {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd()
+    {
+        statementEnd();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart()
+    {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd()
+    {
+        statementEnd();
+    }
+
+    private void statementEnd()
+    {
+        statements++;
+        if (timings != null)
+        {
+            timings.addStatement(System.nanoTime() - statementStart);
+        }
+    }
+
+    @Override
+    public void end()
+    {
+        long elapsed = System.nanoTime() - sessionStart;
+        MetricsRegistry.getInstance().recordDbCall(elapsed);
+        if (elapsed > SLOW_CALL_NANOS)
+        {
+            logger.warn("Slow DAO call: {} ms, {} statements", TimeUnit.NANOSECONDS.toMillis(elapsed), statements);
+        }
+    }
+}
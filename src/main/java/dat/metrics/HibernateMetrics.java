@@ -0,0 +1,46 @@
+package dat.metrics;
+
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+public class HibernateMetrics
+{
+    private static final int SLOWEST_QUERIES = 5;
+
+    private record QueryTime(String query, QueryStatistics stats) {}
+
+    public static void writeTo(PrometheusWriter writer, Statistics statistics)
+    {
+        if (!statistics.isStatisticsEnabled())
+        {
+            return;
+        }
+        counter(writer, "hibernate_query_executions_total", "JPQL queries executed", statistics.getQueryExecutionCount());
+        counter(writer, "hibernate_statements_prepared_total", "JDBC statements prepared", statistics.getPrepareStatementCount());
+        counter(writer, "hibernate_entity_loads_total", "Entities loaded from the database", statistics.getEntityLoadCount());
+        counter(writer, "hibernate_entity_fetches_total", "Entities fetched lazily", statistics.getEntityFetchCount());
+        counter(writer, "hibernate_collection_fetches_total", "Collections fetched lazily", statistics.getCollectionFetchCount());
+        counter(writer, "hibernate_transactions_total", "Transactions completed", statistics.getTransactionCount());
+        writer.gauge("hibernate_query_max_seconds", "Slowest single query execution", statistics.getQueryExecutionMaxTime() / 1000.0);
+
+        // The query strings are JPQL with named parameters, so no bound values end up in the metrics
+        writer.describe("hibernate_slow_query_max_seconds", "gauge", "Slowest execution of the slowest queries");
+        writer.describe("hibernate_slow_query_avg_seconds", "gauge", "Average execution of the slowest queries");
+        Arrays.stream(statistics.getQueries())
+                .map(query -> new QueryTime(query, statistics.getQueryStatistics(query)))
+                .sorted(Comparator.comparingLong((QueryTime q) -> q.stats().getExecutionMaxTime()).reversed())
+                .limit(SLOWEST_QUERIES)
+                .forEach(q -> {
+                    writer.sample("hibernate_slow_query_max_seconds", q.stats().getExecutionMaxTime() / 1000.0, "query", q.query());
+                    writer.sample("hibernate_slow_query_avg_seconds", q.stats().getExecutionAvgTime() / 1000.0, "query", q.query());
+                });
+    }
+
+    private static void counter(PrometheusWriter writer, String name, String help, long value)
+    {
+        writer.describe(name, "counter", help).sample(name, value);
+    }
+}
@@ -0,0 +1,30 @@
+package dat.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+
+public class JvmMetrics
+{
+    public static void writeTo(PrometheusWriter writer)
+    {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        MemoryUsage nonHeap = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        writer.describe("jvm_memory_used_bytes", "gauge", "Used memory per area");
+        writer.sample("jvm_memory_used_bytes", heap.getUsed(), "area", "heap");
+        writer.sample("jvm_memory_used_bytes", nonHeap.getUsed(), "area", "nonheap");
+        writer.describe("jvm_memory_committed_bytes", "gauge", "Committed memory per area");
+        writer.sample("jvm_memory_committed_bytes", heap.getCommitted(), "area", "heap");
+        writer.sample("jvm_memory_committed_bytes", nonHeap.getCommitted(), "area", "nonheap");
+        writer.gauge("jvm_memory_max_bytes", "Maximum heap size", heap.getMax());
+
+        writer.describe("jvm_gc_collections_total", "counter", "Garbage collections per collector");
+        writer.describe("jvm_gc_collection_seconds_total", "counter", "Time spent in garbage collection per collector");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans())
+        {
+            writer.sample("jvm_gc_collections_total", gc.getCollectionCount(), "gc", gc.getName());
+            writer.sample("jvm_gc_collection_seconds_total", gc.getCollectionTime() / 1000.0, "gc", gc.getName());
+        }
+        writer.gauge("jvm_threads_live", "Live threads", ManagementFactory.getThreadMXBean().getThreadCount());
+    }
+}
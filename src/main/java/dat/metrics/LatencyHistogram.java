@@ -0,0 +1,57 @@
+package dat.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Cumulative histogram with fixed buckets, as Prometheus expects them. Recording is a bucket search and two
+// LongAdder increments, so it does not contend between request threads.
+public class LatencyHistogram
+{
+    static final double[] BUCKET_SECONDS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final long[] BUCKET_NANOS = new long[BUCKET_SECONDS.length];
+    private final LongAdder[] buckets = new LongAdder[BUCKET_SECONDS.length + 1];
+    private final LongAdder sumNanos = new LongAdder();
+
+    static
+    {
+        for (int i = 0; i < BUCKET_SECONDS.length; i++)
+        {
+            BUCKET_NANOS[i] = (long) (BUCKET_SECONDS[i] * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+
+    public LatencyHistogram()
+    {
+        for (int i = 0; i < buckets.length; i++)
+        {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos)
+    {
+        int i = 0;
+        while (i < BUCKET_NANOS.length && nanos > BUCKET_NANOS[i])
+        {
+            i++;
+        }
+        buckets[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    // Counts per bucket, not cumulative; the last one is everything above the largest bucket
+    long[] snapshot()
+    {
+        long[] counts = new long[buckets.length];
+        for (int i = 0; i < buckets.length; i++)
+        {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    double sumSeconds()
+    {
+        return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+}
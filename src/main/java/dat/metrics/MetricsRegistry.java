@@ -0,0 +1,78 @@
+package dat.metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Request count, error count and latency per route. Routes are keyed by their path template (/api/hotel/{id}),
+// never the raw path, so the number of series stays as small as the number of routes.
+public class MetricsRegistry
+{
+    private static MetricsRegistry instance;
+    private final Map<String, RouteMetrics> routes = new ConcurrentHashMap<>();
+    private final LatencyHistogram dbCalls = new LatencyHistogram();
+
+    private record RouteMetrics(String method, String route, LongAdder requests, LongAdder errors, LatencyHistogram latency) {}
+
+    public static synchronized MetricsRegistry getInstance()
+    {
+        if (instance == null)
+        {
+            instance = new MetricsRegistry();
+        }
+        return instance;
+    }
+
+    public void record(String method, String route, int status, long nanos)
+    {
+        RouteMetrics metrics = routes.computeIfAbsent(method + " " + route,
+                key -> new RouteMetrics(method, route, new LongAdder(), new LongAdder(), new LatencyHistogram()));
+        metrics.requests().increment();
+        if (status >= 500)
+        {
+            metrics.errors().increment();
+        }
+        metrics.latency().record(nanos);
+    }
+
+    // One DAO call, from opening the EntityManager to closing it
+    public void recordDbCall(long nanos)
+    {
+        dbCalls.record(nanos);
+    }
+
+    public void writeTo(PrometheusWriter writer)
+    {
+        writer.describe("http_requests_total", "counter", "Requests handled, per route");
+        routes.values().forEach(m -> writer.sample("http_requests_total", m.requests().sum(), "method", m.method(), "route", m.route()));
+        writer.describe("http_request_errors_total", "counter", "Requests answered with a 5xx status, per route");
+        routes.values().forEach(m -> writer.sample("http_request_errors_total", m.errors().sum(), "method", m.method(), "route", m.route()));
+        writer.describe("http_request_duration_seconds", "histogram", "Time from the first before handler to the last after handler");
+        routes.values().forEach(m -> writeHistogram(writer, "http_request_duration_seconds", m.latency(), "method", m.method(), "route", m.route()));
+        writer.describe("db_call_duration_seconds", "histogram", "Time per DAO call, from opening the EntityManager to closing it");
+        writeHistogram(writer, "db_call_duration_seconds", dbCalls);
+    }
+
+    private static void writeHistogram(PrometheusWriter writer, String name, LatencyHistogram histogram, String... labels)
+    {
+        long[] counts = histogram.snapshot();
+        long cumulative = 0;
+        for (int i = 0; i <= LatencyHistogram.BUCKET_SECONDS.length; i++)
+        {
+            cumulative += counts[i];
+            String le = i < LatencyHistogram.BUCKET_SECONDS.length ? String.valueOf(LatencyHistogram.BUCKET_SECONDS[i]) : "+Inf";
+            writer.sample(name + "_bucket", cumulative, withLabel(labels, "le", le));
+        }
+        writer.sample(name + "_sum", histogram.sumSeconds(), labels);
+        writer.sample(name + "_count", cumulative, labels);
+    }
+
+    private static String[] withLabel(String[] labels, String name, String value)
+    {
+        String[] result = Arrays.copyOf(labels, labels.length + 2);
+        result[labels.length] = name;
+        result[labels.length + 1] = value;
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+package dat.metrics;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// Writes the Prometheus text exposition format (version 0.0.4)
+public class PrometheusWriter
+{
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private final StringBuilder out = new StringBuilder();
+    private final Set<String> described = new LinkedHashSet<>();
+
+    public PrometheusWriter describe(String name, String type, String help)
+    {
+        if (described.add(name))
+        {
+            out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        }
+        return this;
+    }
+
+    // Labels are given as name/value pairs
+    public PrometheusWriter sample(String name, double value, String... labels)
+    {
+        out.append(name);
+        if (labels.length > 0)
+        {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2)
+            {
+                if (i > 0)
+                {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"").append(escape(labels[i + 1])).append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ').append(format(value)).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter gauge(String name, String help, double value)
+    {
+        return describe(name, "gauge", help).sample(name, value);
+    }
+
+    public static String sanitize(String name)
+    {
+        return name.replaceAll("[^a-zA-Z0-9_]", "_")
+                .replaceAll("([a-z0-9])([A-Z])", "$1_$2")
+                .toLowerCase();
+    }
+
+    private static String escape(String value)
+    {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String format(double value)
+    {
+        if (Double.isNaN(value))
+        {
+            return "NaN";
+        }
+        if (value == Math.rint(value) && !Double.isInfinite(value))
+        {
+            return String.valueOf((long) value);
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public String toString()
+    {
+        return out.toString();
+    }
+}
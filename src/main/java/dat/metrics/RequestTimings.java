@@ -0,0 +1,62 @@
+package dat.metrics;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Where the time of one request went. It is bound to the servlet thread for the request (see
+// ApplicationConfig.addServerTiming), and BoundedExecutor carries it over to its worker threads, so DB work done for an
+// async request is still counted. Each thread unbinds what it bound.
+public class RequestTimings
+{
+    private static final ThreadLocal<RequestTimings> current = new ThreadLocal<>();
+    private final long startNanos = System.nanoTime();
+    private final LongAdder dbNanos = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder jsonNanos = new LongAdder();
+
+    public static RequestTimings current()
+    {
+        return current.get();
+    }
+
+    public static void bind(RequestTimings timings)
+    {
+        if (timings == null)
+        {
+            current.remove();
+        }
+        else
+        {
+            current.set(timings);
+        }
+    }
+
+    public static void unbind()
+    {
+        current.remove();
+    }
+
+    public void addStatement(long nanos)
+    {
+        statements.increment();
+        dbNanos.add(nanos);
+    }
+
+    public void addJson(long nanos)
+    {
+        jsonNanos.add(nanos);
+    }
+
+    // Server-Timing header value, durations in milliseconds to the microsecond
+    public String toServerTiming()
+    {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"%d statements\", json;dur=%.3f, total;dur=%.3f",
+                millis(dbNanos.sum()), statements.sum(), millis(jsonNanos.sum()), millis(System.nanoTime() - startNanos));
+    }
+
+    private static double millis(long nanos)
+    {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
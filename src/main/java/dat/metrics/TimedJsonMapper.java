@@ -0,0 +1,108 @@
+package dat.metrics;
+
+import io.javalin.json.JsonMapper;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.stream.Stream;
+
+// Times serialization for the Server-Timing header. The header is set before the body is sent, so ctx.json() is
+// serialized into a byte buffer while the time is taken, instead of lazily while the body is written. Listings that can
+// be large are written with writeToOutputStream, which streams and is timed as it goes.
+public class TimedJsonMapper implements JsonMapper
+{
+    private final JsonMapper delegate;
+
+    public TimedJsonMapper(JsonMapper delegate)
+    {
+        this.delegate = delegate;
+    }
+
+    @NotNull
+    @Override
+    public String toJsonString(@NotNull Object obj, @NotNull Type type)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            return delegate.toJsonString(obj, type);
+        }
+        finally
+        {
+            record(start);
+        }
+    }
+
+    @NotNull
+    @Override
+    public InputStream toJsonStream(@NotNull Object obj, @NotNull Type type)
+    {
+        long start = System.nanoTime();
+        ExposedByteArrayOutputStream buffer = new ExposedByteArrayOutputStream();
+        try (InputStream json = delegate.toJsonStream(obj, type))
+        {
+            json.transferTo(buffer);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            record(start);
+        }
+        return buffer.toInputStream();
+    }
+
+    @Override
+    public void writeToOutputStream(@NotNull Stream<?> stream, @NotNull OutputStream outputStream)
+    {
+        long start = System.nanoTime();
+        try
+        {
+            delegate.writeToOutputStream(stream, outputStream);
+        }
+        finally
+        {
+            record(start);
+        }
+    }
+
+    @NotNull
+    @Override
+    public <T> T fromJsonString(@NotNull String json, @NotNull Type targetType)
+    {
+        return delegate.fromJsonString(json, targetType);
+    }
+
+    @NotNull
+    @Override
+    public <T> T fromJsonStream(@NotNull InputStream json, @NotNull Type targetType)
+    {
+        return delegate.fromJsonStream(json, targetType);
+    }
+
+    private static void record(long start)
+    {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null)
+        {
+            timings.addJson(System.nanoTime() - start);
+        }
+    }
+
+    // Hands its buffer to the input stream as it is, so the body is held in memory once
+    private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream
+    {
+        InputStream toInputStream()
+        {
+            return new ByteArrayInputStream(buf, 0, count);
+        }
+    }
+}
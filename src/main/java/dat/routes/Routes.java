@@ -1,46 +1,112 @@
 package dat.routes;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import dat.config.AppSettings;
+import dat.controllers.BookingController;
 import dat.controllers.HotelController;
+import dat.controllers.RoomController;
 import dat.controllers.SecurityController;
+import dat.controllers.StatusController;
 import dat.enums.Roles;
 import io.javalin.apibuilder.EndpointGroup;
+import io.javalin.http.Context;
+import io.javalin.http.Handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 import static io.javalin.apibuilder.ApiBuilder.*;
 
 public class Routes
 {
     private final HotelController hotelController;
+    private final RoomController roomController;
+    private final BookingController bookingController;
     private final SecurityController securityController;
+    private final StatusController statusController;
+    private final boolean asyncHotelEndpoints;
     private final ObjectMapper jsonMapper = new ObjectMapper();
 
-    public Routes(HotelController hotelController, SecurityController securityController)
+    public Routes(HotelController hotelController, RoomController roomController, BookingController bookingController,
+                  SecurityController securityController, StatusController statusController)
+    {
+        this(hotelController, roomController, bookingController, securityController, statusController, AppSettings.getInstance().getBoolean("ASYNC_ENDPOINTS_ENABLED", false));
+    }
+
+    public Routes(HotelController hotelController, RoomController roomController, BookingController bookingController,
+                  SecurityController securityController, StatusController statusController, boolean asyncHotelEndpoints)
     {
         this.hotelController = hotelController;
+        this.roomController = roomController;
+        this.bookingController = bookingController;
         this.securityController = securityController;
+        this.statusController = statusController;
+        this.asyncHotelEndpoints = asyncHotelEndpoints;
     }
 
     public  EndpointGroup getRoutes()
     {
         return () -> {
             path("hotel", hotelRoutes());
+            path("rooms", roomRoutes());
+            path("bookings", bookingRoutes());
             path("auth", authRoutes());
             path("protected", protectedRoutes());
+            path("status", statusRoutes());
+            // Open to scrapers only when METRICS_PUBLIC=true, since it lists query strings and internals
+            get("metrics", statusController::metrics,
+                    AppSettings.getInstance().getBoolean("METRICS_PUBLIC", false) ? Roles.ANYONE : Roles.ADMIN);
         };
     }
 
     private  EndpointGroup hotelRoutes()
     {
+        if (asyncHotelEndpoints)
+        {
+            return () -> {
+                get(async(hotelController::getAllAsync));
+                post(async(hotelController::createAsync));
+                post("/bulk", hotelController::createBulk);
+                get("/{id}", async(hotelController::getByIdAsync));
+                put("/{id}", async(hotelController::updateAsync));
+                delete("/{id}", async(hotelController::deleteAsync));
+                get("/{id}/rooms", hotelController::getRooms);
+                get("/{id}/availability", bookingController::getAvailableRooms);
+            };
+        }
         return () -> {
             get(hotelController::getAll);
             post(hotelController::create);
+            post("/bulk", hotelController::createBulk);
             get("/{id}", hotelController::getById);
             put("/{id}", hotelController::update);
             delete("/{id}", hotelController::delete);
             get("/{id}/rooms", hotelController::getRooms);
+            get("/{id}/availability", bookingController::getAvailableRooms);
+        };
+    }
+
+    private  EndpointGroup roomRoutes()
+    {
+        return () -> {
+            get(roomController::search);
+        };
+    }
+
+    private  EndpointGroup bookingRoutes()
+    {
+        return () -> {
+            get(bookingController::getMine, Roles.USER, Roles.ADMIN);
+            post(bookingController::create, Roles.USER, Roles.ADMIN);
+            delete("/{id}", bookingController::delete, Roles.USER, Roles.ADMIN);
         };
     }
 
+    private static Handler async(Function<Context, CompletableFuture<Void>> handler)
+    {
+        return ctx -> ctx.future(() -> handler.apply(ctx));
+    }
+
     private  EndpointGroup authRoutes()
     {
         return () -> {
@@ -50,6 +116,7 @@ public class Routes
             post("/register", securityController::register, Roles.ANYONE);
             get("/verify", securityController::verify , Roles.ANYONE);
             get("/tokenlifespan", securityController::timeToLive , Roles.ANYONE);
+            post("/logout", securityController::logout, Roles.ANYONE);
         };
     }
 
@@ -61,4 +128,12 @@ public class Routes
         };
     }
 
+    private  EndpointGroup statusRoutes()
+    {
+        return () -> {
+            get(statusController::getAll, Roles.ADMIN);
+            get("/pool", statusController::pool, Roles.ADMIN);
+        };
+    }
+
 }
@@ -0,0 +1,53 @@
+package dat.security;
+
+import dat.config.AppSettings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Caps the number of requests being handled at once. Above the cap new requests are shed with 503 straight away,
+// which keeps response times steady for the requests already admitted instead of queueing everybody.
+public class ConcurrencyLimiter
+{
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder shed = new LongAdder();
+
+    public ConcurrencyLimiter(int maxInFlight)
+    {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public static ConcurrencyLimiter fromSettings()
+    {
+        return new ConcurrencyLimiter(AppSettings.getInstance().getInt("MAX_IN_FLIGHT_REQUESTS", 200));
+    }
+
+    // Every successful acquire must be followed by exactly one release
+    public boolean tryAcquire()
+    {
+        if (inFlight.incrementAndGet() > maxInFlight)
+        {
+            inFlight.decrementAndGet();
+            shed.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public void release()
+    {
+        inFlight.decrementAndGet();
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("inFlight", inFlight.get());
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("shed", shed.sum());
+        return stats;
+    }
+}
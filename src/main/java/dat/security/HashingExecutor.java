@@ -0,0 +1,28 @@
+package dat.security;
+
+import dat.config.AppSettings;
+import dat.utils.BoundedExecutor;
+
+// BCrypt is deliberately slow, so password checks and hashing run here instead of on Jetty's request threads.
+// A full queue means logins are rejected with 503 instead of piling up and starving every other request.
+public class HashingExecutor extends BoundedExecutor
+{
+    private static HashingExecutor instance;
+
+    public HashingExecutor(int threads, int queueCapacity)
+    {
+        super("password-hashing", threads, queueCapacity);
+    }
+
+    public static synchronized HashingExecutor getInstance()
+    {
+        if (instance == null)
+        {
+            AppSettings settings = AppSettings.getInstance();
+            instance = new HashingExecutor(
+                    settings.getInt("HASHING_THREADS", Runtime.getRuntime().availableProcessors()),
+                    settings.getInt("HASHING_QUEUE_CAPACITY", 100));
+        }
+        return instance;
+    }
+}
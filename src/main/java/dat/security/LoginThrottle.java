@@ -0,0 +1,55 @@
+package dat.security;
+
+import dat.config.AppSettings;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Limits login attempts per client IP and per username, so credential stuffing is turned away before any BCrypt work
+public class LoginThrottle
+{
+    private static LoginThrottle instance;
+    private final SlidingWindowLimiter byIp;
+    private final SlidingWindowLimiter byUsername;
+
+    public LoginThrottle(int perIp, int perUsername, long windowMillis)
+    {
+        byIp = new SlidingWindowLimiter(perIp, windowMillis);
+        byUsername = new SlidingWindowLimiter(perUsername, windowMillis);
+    }
+
+    public static synchronized LoginThrottle getInstance()
+    {
+        if (instance == null)
+        {
+            AppSettings settings = AppSettings.getInstance();
+            instance = new LoginThrottle(
+                    settings.getInt("LOGIN_LIMIT_PER_IP", 100),
+                    settings.getInt("LOGIN_LIMIT_PER_USERNAME", 20),
+                    settings.getLong("LOGIN_LIMIT_WINDOW_SECONDS", 60) * 1000);
+        }
+        return instance;
+    }
+
+    // Returns 0 if the attempt may go ahead, otherwise the number of seconds the client should wait
+    public long retryAfterSeconds(String ip, String username)
+    {
+        long retryAfter = byIp.tryAcquire(ip);
+        if (retryAfter > 0)
+        {
+            return retryAfter;
+        }
+        return byUsername.tryAcquire(username == null ? "" : username);
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("allowed", byUsername.getAllowed());
+        stats.put("throttledByIp", byIp.getThrottled());
+        stats.put("throttledByUsername", byUsername.getThrottled());
+        stats.put("trackedIps", byIp.getTrackedKeys());
+        stats.put("trackedUsernames", byUsername.getTrackedKeys());
+        return stats;
+    }
+}
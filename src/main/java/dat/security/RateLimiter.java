@@ -0,0 +1,119 @@
+package dat.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dat.config.AppSettings;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+// Token bucket per client and route group. A client may burst up to the capacity, and gets tokens back at a steady rate.
+// Capacity and rate are RATE_LIMIT_CAPACITY / RATE_LIMIT_PER_SECOND, and can be set per route group,
+// e.g. RATE_LIMIT_HOTEL_CAPACITY. The groups are a fixed list (RATE_LIMIT_GROUPS), and any other path shares the
+// "other" group, so made-up paths can neither grow the limits nor get a fresh bucket.
+// Buckets not used for a while are dropped by the cache.
+public class RateLimiter
+{
+    private static final long MAX_BUCKETS = 100_000;
+    private static final String DEFAULT_GROUPS = "hotel,rooms,bookings,auth,protected,status,metrics";
+    private static final String OTHER_GROUP = "other";
+    private final AppSettings settings;
+    private final Cache<String, Bucket> buckets;
+    private final Map<String, Limit> limits = new HashMap<>();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder limited = new LongAdder();
+
+    private record Limit(double capacity, double perNano) {}
+
+    private record State(double tokens, long updatedNanos) {}
+
+    public RateLimiter(AppSettings settings)
+    {
+        this.settings = settings;
+        for (String group : settings.get("RATE_LIMIT_GROUPS", DEFAULT_GROUPS).split(","))
+        {
+            if (!group.isBlank())
+            {
+                limits.put(group.trim().toLowerCase(Locale.ROOT), limitFor(group.trim()));
+            }
+        }
+        limits.put(OTHER_GROUP, limitFor(OTHER_GROUP));
+        buckets = Caffeine.newBuilder()
+                .maximumSize(MAX_BUCKETS)
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+    }
+
+    public static RateLimiter fromSettings()
+    {
+        return new RateLimiter(AppSettings.getInstance());
+    }
+
+    // Returns 0 if the request may go ahead, otherwise the number of seconds until a token is available
+    public long tryAcquire(String client, String group)
+    {
+        String known = group == null || !limits.containsKey(group.toLowerCase(Locale.ROOT)) ? OTHER_GROUP : group.toLowerCase(Locale.ROOT);
+        Limit limit = limits.get(known);
+        Bucket bucket = buckets.get(client + "|" + known, key -> new Bucket(limit.capacity()));
+        long waitNanos = bucket.tryConsume(limit);
+        if (waitNanos == 0)
+        {
+            allowed.increment();
+            return 0;
+        }
+        limited.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private Limit limitFor(String group)
+    {
+        String prefix = "RATE_LIMIT_" + group.toUpperCase(Locale.ROOT) + "_";
+        int capacity = settings.getInt(prefix + "CAPACITY", settings.getInt("RATE_LIMIT_CAPACITY", 100));
+        int perSecond = settings.getInt(prefix + "PER_SECOND", settings.getInt("RATE_LIMIT_PER_SECOND", 50));
+        return new Limit(capacity, perSecond / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("allowed", allowed.sum());
+        stats.put("limited", limited.sum());
+        stats.put("trackedClients", buckets.estimatedSize());
+        return stats;
+    }
+
+    private static class Bucket
+    {
+        private final AtomicReference<State> state;
+
+        Bucket(double capacity)
+        {
+            state = new AtomicReference<>(new State(capacity, System.nanoTime()));
+        }
+
+        // Refills for the time passed and takes one token in a single compare-and-set, so no lock is needed
+        long tryConsume(Limit limit)
+        {
+            while (true)
+            {
+                State current = state.get();
+                long now = System.nanoTime();
+                double tokens = Math.min(limit.capacity(), current.tokens() + (now - current.updatedNanos()) * limit.perNano());
+                if (tokens < 1)
+                {
+                    return limit.perNano() == 0 ? Long.MAX_VALUE / 2 : (long) ((1 - tokens) / limit.perNano());
+                }
+                if (state.compareAndSet(current, new State(tokens - 1, now)))
+                {
+                    return 0;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package dat.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts attempts per key in a window split into buckets, e.g. one minute as six 10 second buckets.
+// A bucket is reused once it has fallen out of the window, so memory per key is fixed, and no locks are taken.
+// Keys that have been idle for a whole window are dropped now and then, so the map does not grow forever.
+// Checking and counting are not one atomic step, so concurrent attempts can overshoot the limit by a few.
+public class SlidingWindowLimiter
+{
+    private static final int BUCKETS = 6;
+    private static final int CLEANUP_EVERY = 1024;
+    private final int limit;
+    private final long bucketMillis;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final LongAdder allowed = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+
+    public SlidingWindowLimiter(int limit, long windowMillis)
+    {
+        this.limit = limit;
+        this.bucketMillis = Math.max(1, windowMillis / BUCKETS);
+    }
+
+    // Returns 0 and counts the attempt if it is allowed, otherwise the number of seconds until it would be
+    public long tryAcquire(String key)
+    {
+        long now = System.currentTimeMillis();
+        long bucket = now / bucketMillis;
+        if (calls.incrementAndGet() % CLEANUP_EVERY == 0)
+        {
+            windows.values().removeIf(window -> window.isIdle(bucket));
+        }
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        if (window.count(bucket) >= limit)
+        {
+            throttled.increment();
+            long retryAtMillis = (window.oldestBucket(bucket) + BUCKETS) * bucketMillis;
+            return Math.max(1, (retryAtMillis - now + 999) / 1000);
+        }
+        window.increment(bucket);
+        allowed.increment();
+        return 0;
+    }
+
+    public long getAllowed()
+    {
+        return allowed.sum();
+    }
+
+    public long getThrottled()
+    {
+        return throttled.sum();
+    }
+
+    public int getTrackedKeys()
+    {
+        return windows.size();
+    }
+
+    private static class Window
+    {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        long count(long currentBucket)
+        {
+            long sum = 0;
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                if (buckets.get(i) > currentBucket - BUCKETS)
+                {
+                    sum += counts.get(i);
+                }
+            }
+            return sum;
+        }
+
+        void increment(long currentBucket)
+        {
+            int index = (int) (currentBucket % BUCKETS);
+            long previous = buckets.get(index);
+            // The first thread to see a stale bucket resets it; an attempt racing with the reset may be lost
+            if (previous != currentBucket && buckets.compareAndSet(index, previous, currentBucket))
+            {
+                counts.set(index, 0);
+            }
+            counts.incrementAndGet(index);
+        }
+
+        long oldestBucket(long currentBucket)
+        {
+            long oldest = currentBucket;
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                long bucket = buckets.get(i);
+                if (bucket > currentBucket - BUCKETS && counts.get(i) > 0)
+                {
+                    oldest = Math.min(oldest, bucket);
+                }
+            }
+            return oldest;
+        }
+
+        boolean isIdle(long currentBucket)
+        {
+            for (int i = 0; i < BUCKETS; i++)
+            {
+                if (buckets.get(i) > currentBucket - BUCKETS)
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
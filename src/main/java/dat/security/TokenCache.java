@@ -0,0 +1,154 @@
+package dat.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import dat.config.AppSettings;
+import dat.utils.CacheStatsReader;
+import dk.bugelhartmann.UserDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Remembers tokens that have already been verified, so the signature is checked once per token instead of once per request.
+// Entries expire together with the token itself. Revocations are kept in memory, so they only apply to this instance.
+public class TokenCache
+{
+    private static TokenCache instance;
+    private final Cache<String, Entry> verified;
+    private final Cache<String, Entry> revoked;
+    private final Duration maximumTimeToLive;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private record Entry(UserDTO user, long expiresAtMillis) {}
+
+    public TokenCache(long maximumSize, Duration maximumTimeToLive)
+    {
+        this.maximumTimeToLive = maximumTimeToLive;
+        verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(untilTokenExpires(maximumTimeToLive))
+                .recordStats()
+                .build();
+        // Not bounded by size: dropping a revoked token early would make it valid again
+        revoked = Caffeine.newBuilder()
+                .expireAfter(untilTokenExpires(null))
+                .build();
+    }
+
+    // Shared by every SecurityController, so a token revoked through one is rejected by the access handler as well
+    public static synchronized TokenCache getInstance()
+    {
+        if (instance == null)
+        {
+            instance = fromSettings();
+        }
+        return instance;
+    }
+
+    public static TokenCache fromSettings()
+    {
+        AppSettings settings = AppSettings.getInstance();
+        long maximumSize = settings.getLong("TOKEN_CACHE_MAX_SIZE", 10000);
+        long timeToLive = settings.getLong("TOKEN_CACHE_MAX_TTL_SECONDS", 3600);
+        return new TokenCache(maximumSize, Duration.ofSeconds(timeToLive));
+    }
+
+    // Returns the user for a token, calling the verifier only when the token has not been seen before.
+    // The verifier throws for invalid tokens, and those are not cached.
+    public UserDTO get(String token, Function<String, UserDTO> verifier)
+    {
+        String key = hash(token);
+        if (revoked.getIfPresent(key) != null)
+        {
+            return null;
+        }
+        return verified.get(key, k -> new Entry(verifier.apply(token), expiresAt(token))).user();
+    }
+
+    // Call only with a token that has been verified, otherwise anyone could fill the revocation list
+    public void revoke(String token)
+    {
+        String key = hash(token);
+        revoked.put(key, new Entry(null, expiresAt(token)));
+        verified.invalidate(key);
+    }
+
+    // Forces every token to be verified again, e.g. after the secret key has changed. Revocations are kept.
+    public void invalidateAll()
+    {
+        verified.invalidateAll();
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = CacheStatsReader.read(verified);
+        stats.put("revoked", revoked.estimatedSize());
+        return stats;
+    }
+
+    // The token is signed, so the payload can be read directly once it has been verified
+    private long expiresAt(String token)
+    {
+        try
+        {
+            String[] parts = token.split("\\.");
+            JsonNode payload = objectMapper.readTree(Base64.getUrlDecoder().decode(parts[1]));
+            if (payload.hasNonNull("exp"))
+            {
+                return TimeUnit.SECONDS.toMillis(payload.get("exp").asLong());
+            }
+        }
+        catch (Exception e)
+        {
+            // Fall through to the maximum time to live
+        }
+        return System.currentTimeMillis() + maximumTimeToLive.toMillis();
+    }
+
+    private static Expiry<String, Entry> untilTokenExpires(Duration limit)
+    {
+        return new Expiry<>()
+        {
+            @Override
+            public long expireAfterCreate(String key, Entry entry, long currentTime)
+            {
+                long millisLeft = Math.max(0, entry.expiresAtMillis() - System.currentTimeMillis());
+                return TimeUnit.MILLISECONDS.toNanos(limit == null ? millisLeft : Math.min(millisLeft, limit.toMillis()));
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration)
+            {
+                return expireAfterCreate(key, entry, currentTime);
+            }
+
+            @Override
+            public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration)
+            {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static String hash(String token)
+    {
+        try
+        {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
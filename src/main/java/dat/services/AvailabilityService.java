@@ -0,0 +1,204 @@
+package dat.services;
+
+import dat.dao.IBookingDAO;
+import dat.dao.IHotelDAO;
+import dat.dto.BookingDTO;
+import dat.dto.RoomDTO;
+import dat.exceptions.BookingConflictException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Keeps the booked nights of every room in memory, one bit per night counted from the day the index was built.
+// Availability is then a few word operations per room instead of a query over bookings. The index is built from the
+// database at startup and kept current by reserve and cancel. It is rebuilt by the first request on a new day, so past
+// nights are dropped and the bit sets stay within the booking horizon. Bookings made through another instance of the
+// API are still refused by the database, but only show up here after a rebuild.
+public class AvailabilityService
+{
+    public static final int MAX_STAY_NIGHTS = 365;
+    public static final int BOOKING_HORIZON_DAYS = 730;
+    private final IBookingDAO bookingDAO;
+    private final IHotelDAO hotelDAO;
+    private volatile Index index;
+    private final LongAdder reservations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+    private final Logger logger = LoggerFactory.getLogger(AvailabilityService.class);
+
+    private record Index(LocalDate origin, Map<Long, BitSet> rooms)
+    {
+        BitSet nights(Long roomId)
+        {
+            return rooms.computeIfAbsent(roomId, id -> new BitSet());
+        }
+
+        int offset(LocalDate date)
+        {
+            return (int) Math.max(0, ChronoUnit.DAYS.between(origin, date));
+        }
+    }
+
+    public AvailabilityService(IBookingDAO bookingDAO, IHotelDAO hotelDAO)
+    {
+        this.bookingDAO = bookingDAO;
+        this.hotelDAO = hotelDAO;
+        this.index = new Index(LocalDate.now(), new ConcurrentHashMap<>());
+    }
+
+    // Past nights are left out, since they can no longer be booked
+    public void rebuild()
+    {
+        Index rebuilt = new Index(LocalDate.now(), new ConcurrentHashMap<>());
+        List<BookingDTO> bookings = bookingDAO.getBookingsEndingAfter(rebuilt.origin());
+        for (BookingDTO booking : bookings)
+        {
+            rebuilt.nights(booking.roomId()).set(rebuilt.offset(booking.checkIn()), rebuilt.offset(booking.checkOut()));
+        }
+        index = rebuilt;
+        logger.info("Availability index built from {} bookings for {} rooms", bookings.size(), rebuilt.rooms().size());
+    }
+
+    public List<RoomDTO> getFreeRooms(Long hotelId, LocalDate checkIn, LocalDate checkOut)
+    {
+        validate(checkIn, checkOut);
+        Index current = current();
+        int from = current.offset(checkIn);
+        int to = current.offset(checkOut);
+        return hotelDAO.getRoomDtos(hotelId).stream()
+                .filter(room -> isFree(current.rooms().get(room.getId()), from, to))
+                .toList();
+    }
+
+    // The nights are claimed in memory first, under the room's lock, so concurrent requests for the same room are
+    // decided here without waiting on the database. The database then checks again under a row lock.
+    public BookingDTO reserve(Long roomId, String username, LocalDate checkIn, LocalDate checkOut)
+    {
+        validate(checkIn, checkOut);
+        Index current = current();
+        BitSet nights = current.nights(roomId);
+        int from = current.offset(checkIn);
+        int to = current.offset(checkOut);
+        synchronized (nights)
+        {
+            if (!isFree(nights, from, to))
+            {
+                conflicts.increment();
+                throw new BookingConflictException("Room " + roomId + " is already booked between " + checkIn + " and " + checkOut);
+            }
+            nights.set(from, to);
+        }
+        try
+        {
+            BookingDTO booking = bookingDAO.createBooking(roomId, username, checkIn, checkOut);
+            reservations.increment();
+            return booking;
+        }
+        catch (RuntimeException e)
+        {
+            if (e instanceof BookingConflictException)
+            {
+                conflicts.increment();
+            }
+            synchronized (nights)
+            {
+                nights.clear(from, to);
+            }
+            throw e;
+        }
+    }
+
+    public void cancel(BookingDTO booking)
+    {
+        bookingDAO.deleteBooking(booking.id());
+        cancellations.increment();
+        Index current = current();
+        if (booking.checkOut().isAfter(current.origin()))
+        {
+            BitSet nights = current.nights(booking.roomId());
+            synchronized (nights)
+            {
+                nights.clear(current.offset(booking.checkIn()), current.offset(booking.checkOut()));
+            }
+        }
+    }
+
+    // A booking being reserved while the index is rebuilt may be missed until the next rebuild. The database still
+    // refuses a double booking, so the only effect is a room shown as free. If the rebuild fails, the old index stays
+    // in use, since its offsets are still correct.
+    private Index current()
+    {
+        Index current = index;
+        if (!LocalDate.now().isAfter(current.origin()))
+        {
+            return current;
+        }
+        synchronized (this)
+        {
+            if (index == current)
+            {
+                try
+                {
+                    rebuild();
+                }
+                catch (RuntimeException e)
+                {
+                    logger.error("Could not rebuild the availability index, keeping the one from {}", current.origin(), e);
+                }
+            }
+            return index;
+        }
+    }
+
+    public Map<String, Number> getStats()
+    {
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("rooms", index.rooms().size());
+        stats.put("reservations", reservations.sum());
+        stats.put("conflicts", conflicts.sum());
+        stats.put("cancellations", cancellations.sum());
+        return stats;
+    }
+
+    private static boolean isFree(BitSet nights, int from, int to)
+    {
+        if (nights == null)
+        {
+            return true;
+        }
+        synchronized (nights)
+        {
+            int firstBooked = nights.nextSetBit(from);
+            return firstBooked == -1 || firstBooked >= to;
+        }
+    }
+
+    private static void validate(LocalDate checkIn, LocalDate checkOut)
+    {
+        if (checkIn == null || checkOut == null || !checkIn.isBefore(checkOut))
+        {
+            throw new IllegalArgumentException("checkIn must be before checkOut");
+        }
+        LocalDate today = LocalDate.now();
+        if (checkIn.isBefore(today))
+        {
+            throw new IllegalArgumentException("checkIn must not be in the past");
+        }
+        if (ChronoUnit.DAYS.between(checkIn, checkOut) > MAX_STAY_NIGHTS)
+        {
+            throw new IllegalArgumentException("A stay can be at most " + MAX_STAY_NIGHTS + " nights");
+        }
+        if (ChronoUnit.DAYS.between(today, checkOut) > BOOKING_HORIZON_DAYS)
+        {
+            throw new IllegalArgumentException("Bookings can be made at most " + BOOKING_HORIZON_DAYS + " days ahead");
+        }
+    }
+}
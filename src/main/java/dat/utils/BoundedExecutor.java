@@ -0,0 +1,90 @@
+package dat.utils;
+
+import dat.metrics.RequestTimings;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Fixed thread pool with a bounded queue, for blocking or slow work that should not run on Jetty's request threads.
+// When the queue is full the task is rejected at once, so the caller can answer 503 instead of letting work pile up.
+public class BoundedExecutor
+{
+    private final ThreadPoolExecutor executor;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+
+    public BoundedExecutor(String name, int threads, int queueCapacity)
+    {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, name + "-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // Stages composed on a submitted future see its failure wrapped in a CompletionException; this gives the cause
+    public static Throwable unwrap(Throwable throwable)
+    {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    // The returned future fails with RejectedExecutionException when the queue is full
+    public <T> CompletableFuture<T> submit(Callable<T> task)
+    {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        RequestTimings timings = RequestTimings.current();
+        try
+        {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                RequestTimings.bind(timings);
+                try
+                {
+                    result.complete(task.call());
+                }
+                catch (Exception e)
+                {
+                    result.completeExceptionally(e);
+                }
+                finally
+                {
+                    RequestTimings.unbind();
+                    long elapsed = System.nanoTime() - start;
+                    completed.increment();
+                    totalNanos.add(elapsed);
+                    maxNanos.accumulate(elapsed);
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    public Map<String, Number> getStats()
+    {
+        long count = completed.sum();
+        Map<String, Number> stats = new LinkedHashMap<>();
+        stats.put("threads", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("avgMillis", count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count));
+        stats.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+        return stats;
+    }
+}
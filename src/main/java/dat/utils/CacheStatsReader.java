@@ -0,0 +1,22 @@
+package dat.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class CacheStatsReader
+{
+    public static Map<String, Number> read(Cache<?, ?> cache)
+    {
+        CacheStats stats = cache.stats();
+        Map<String, Number> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,109 @@
+package dat.utils;
+
+import io.javalin.http.Context;
+import io.javalin.http.HttpStatus;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+// Support for ETag / If-None-Match and Last-Modified / If-Modified-Since (RFC 9110, section 13)
+public class ConditionalRequests
+{
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Builds a strong ETag from the ids and versions that make up a representation
+    public static String etag(String kind, long... values)
+    {
+        long hash = FNV_OFFSET_BASIS;
+        for (long value : values)
+        {
+            for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE)
+            {
+                hash ^= (value >>> shift) & 0xff;
+                hash *= FNV_PRIME;
+            }
+        }
+        return "\"" + kind + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    // ETag for a single versioned entity; readable so that If-Match can be turned back into the expected version
+    public static String versionEtag(long id, long version)
+    {
+        return "\"" + id + "-v" + version + "\"";
+    }
+
+    // Returns the version an If-Match value refers to, or null when it does not name a version of this entity
+    public static Long versionFromEtag(String etag, long id)
+    {
+        String prefix = "\"" + id + "-v";
+        String tag = etag.trim();
+        if (!tag.startsWith(prefix) || !tag.endsWith("\""))
+        {
+            return null;
+        }
+        try
+        {
+            return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+        }
+        catch (NumberFormatException e)
+        {
+            return null;
+        }
+    }
+
+    // Sets the validators on the response and returns true, with status 304, when the client's copy is still current
+    public static boolean isNotModified(Context ctx, String etag, Instant lastModified)
+    {
+        ctx.header("ETag", etag);
+        if (lastModified != null)
+        {
+            ctx.header("Last-Modified", DateTimeFormatter.RFC_1123_DATE_TIME.format(lastModified.atZone(ZoneOffset.UTC)));
+        }
+        String ifNoneMatch = ctx.header("If-None-Match");
+        boolean notModified = ifNoneMatch != null
+                ? matches(ifNoneMatch, etag)
+                : notModifiedSince(ctx.header("If-Modified-Since"), lastModified);
+        if (notModified)
+        {
+            ctx.status(HttpStatus.NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    // If-None-Match uses weak comparison, so a W/ prefix is ignored
+    public static boolean matches(String header, String etag)
+    {
+        for (String candidate : header.split(","))
+        {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.replaceFirst("^W/", "").equals(etag))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean notModifiedSince(String header, Instant lastModified)
+    {
+        if (header == null || lastModified == null)
+        {
+            return false;
+        }
+        try
+        {
+            Instant since = ZonedDateTime.parse(header, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            // HTTP dates only have whole seconds
+            return !lastModified.truncatedTo(ChronoUnit.SECONDS).isAfter(since);
+        }
+        catch (DateTimeParseException e)
+        {
+            return false;
+        }
+    }
+}
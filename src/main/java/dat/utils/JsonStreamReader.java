@@ -0,0 +1,85 @@
+package dat.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Reads either a JSON array or newline delimited JSON one record at a time and hands the records on in chunks,
+// so only a single chunk is ever held in memory. Records are located by their 0-based index, and by the line and
+// column they start at, since a compact array is all on line 1.
+public class JsonStreamReader<T>
+{
+    public record Record<T>(long index, int line, int column, T value) {}
+
+    public interface ErrorHandler
+    {
+        void onError(long index, int line, int column, String message);
+    }
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final int chunkSize;
+    private long recordsRead;
+
+    public JsonStreamReader(ObjectMapper objectMapper, Class<T> type, int chunkSize)
+    {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.chunkSize = chunkSize;
+    }
+
+    // Records that cannot be mapped to T are reported and skipped; malformed JSON stops the reading with an IOException
+    public void read(InputStream in, Consumer<List<Record<T>>> chunkConsumer, ErrorHandler errorHandler) throws IOException
+    {
+        try (JsonParser parser = objectMapper.createParser(in))
+        {
+            JsonToken token = parser.nextToken();
+            boolean isArray = token == JsonToken.START_ARRAY;
+            if (isArray)
+            {
+                token = parser.nextToken();
+            }
+            List<Record<T>> chunk = new ArrayList<>(chunkSize);
+            while (token != null && !(isArray && token == JsonToken.END_ARRAY))
+            {
+                long index = recordsRead;
+                int line = parser.currentTokenLocation().getLineNr();
+                int column = parser.currentTokenLocation().getColumnNr();
+                JsonNode node = objectMapper.readTree(parser);
+                recordsRead++;
+                try
+                {
+                    chunk.add(new Record<>(index, line, column, objectMapper.treeToValue(node, type)));
+                }
+                catch (JsonProcessingException e)
+                {
+                    errorHandler.onError(index, line, column, e.getOriginalMessage());
+                }
+                if (chunk.size() == chunkSize)
+                {
+                    chunkConsumer.accept(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                token = parser.nextToken();
+            }
+            if (!chunk.isEmpty())
+            {
+                chunkConsumer.accept(chunk);
+            }
+        }
+    }
+
+    // After malformed JSON, this is the index of the record that could not be read
+    public long getRecordsRead()
+    {
+        return recordsRead;
+    }
+}
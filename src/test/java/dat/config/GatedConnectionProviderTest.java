@@ -0,0 +1,93 @@
+package dat.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GatedConnectionProviderTest
+{
+    private GatedConnectionProvider provider;
+
+    // The same Testcontainers database as HibernateConfig uses for tests
+    private GatedConnectionProvider configure(int permits, long timeoutMillis, int poolSize)
+    {
+        Map<String, Object> props = new HashMap<>();
+        props.put("hibernate.connection.driver_class", "org.testcontainers.jdbc.ContainerDatabaseDriver");
+        props.put("hibernate.connection.url", "jdbc:tc:postgresql:16.2:///test_db");
+        props.put("hibernate.hikari.maximumPoolSize", String.valueOf(poolSize));
+        props.put("hibernate.hikari.minimumIdle", "0");
+        props.put("hibernate.hikari.connectionTimeout", "250");
+        props.put(GatedConnectionProvider.PERMITS, String.valueOf(permits));
+        props.put(GatedConnectionProvider.TIMEOUT_MILLIS, String.valueOf(timeoutMillis));
+        provider = new GatedConnectionProvider();
+        provider.configure(props);
+        return provider;
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        if (provider != null)
+        {
+            provider.stop();
+        }
+    }
+
+    @Test
+    void closeConnection_releasesThePermit() throws SQLException
+    {
+        // Arrange
+        GatedConnectionProvider gate = configure(2, 1000, 2);
+        Connection connection = gate.getConnection();
+        assertThat(gate.getStats().get("available").intValue(), is(1));
+
+        // Act
+        gate.closeConnection(connection);
+
+        // Assert
+        assertThat(gate.getStats().get("available").intValue(), is(2));
+    }
+
+    @Test
+    void getConnection_releasesThePermitWhenThePoolFails() throws SQLException
+    {
+        // Arrange: more permits than connections, so the second call gets past the gate and times out in Hikari
+        GatedConnectionProvider gate = configure(2, 1000, 1);
+        Connection held = gate.getConnection();
+
+        // Act
+        assertThrows(SQLException.class, gate::getConnection);
+
+        // Assert
+        assertThat(gate.getStats().get("available").intValue(), is(1));
+        assertThat(gate.getStats().get("timedOut").longValue(), is(0L));
+        gate.closeConnection(held);
+    }
+
+    @Test
+    void getConnection_timesOutWhenAllPermitsAreTaken() throws SQLException
+    {
+        // Arrange
+        GatedConnectionProvider gate = configure(1, 100, 2);
+        Connection held = gate.getConnection();
+
+        // Act
+        SQLException exception = assertThrows(SQLException.class, gate::getConnection);
+
+        // Assert
+        assertThat(exception.getMessage(), containsString("Timed out after 100 ms"));
+        assertThat(gate.getStats().get("timedOut").longValue(), is(1L));
+        assertThat(gate.getStats().get("available").intValue(), is(0));
+        gate.closeConnection(held);
+        assertThat(gate.getStats().get("available").intValue(), is(1));
+    }
+}
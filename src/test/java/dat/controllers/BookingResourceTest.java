@@ -0,0 +1,162 @@
+package dat.controllers;
+
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.entities.UserAccount;
+import dat.enums.Roles;
+import io.restassured.http.ContentType;
+import io.restassured.response.ValidatableResponse;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+class BookingResourceTest extends HotelResourceTestBase
+{
+    private static final String GUEST = "booking-guest";
+    private static final String PASSWORD = "password123";
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+    private String token;
+    private Room r1, r2;
+
+    // One login for the whole class, so the login throttle is never reached
+    @BeforeAll
+    void setUpAll()
+    {
+        startServer(7081, false);
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            UserAccount existing = em.find(UserAccount.class, GUEST);
+            if (existing != null)
+            {
+                em.remove(existing);
+                em.flush();
+            }
+            UserAccount guest = new UserAccount(GUEST, PASSWORD);
+            guest.addRole(Roles.USER);
+            em.persist(guest);
+            em.getTransaction().commit();
+        }
+        token = given().contentType(ContentType.JSON)
+                .body(Map.of("username", GUEST, "password", PASSWORD))
+                .when().post("/auth/login")
+                .then().statusCode(200)
+                .extract().path("token");
+    }
+
+    @BeforeEach
+    void addRooms()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            Hotel hotel = em.find(Hotel.class, t1.getId());
+            r1 = new Room("101");
+            r2 = new Room("102");
+            hotel.addRoom(r1);
+            hotel.addRoom(r2);
+            em.persist(r1);
+            em.persist(r2);
+            em.getTransaction().commit();
+        }
+        hotelCache.invalidateAll();
+    }
+
+    @Test
+    void create_overlappingIsRejected()
+    {
+        book(r1, DAY, DAY.plusDays(3)).statusCode(201).body("roomId", equalTo(r1.getId().intValue()));
+        book(r1, DAY.plusDays(1), DAY.plusDays(2)).statusCode(409);
+    }
+
+    @Test
+    void create_checkInOnCheckOutDayIsAllowed()
+    {
+        book(r1, DAY, DAY.plusDays(2)).statusCode(201);
+        book(r1, DAY.plusDays(2), DAY.plusDays(4)).statusCode(201);
+    }
+
+    @Test
+    void create_atMost365Nights()
+    {
+        book(r1, DAY, DAY.plusDays(366)).statusCode(400);
+        book(r1, DAY, DAY.plusDays(365)).statusCode(201);
+    }
+
+    @Test
+    void create_atMost730DaysAhead()
+    {
+        LocalDate today = LocalDate.now();
+        book(r1, today.plusDays(729), today.plusDays(731)).statusCode(400);
+        book(r1, today.plusDays(729), today.plusDays(730)).statusCode(201);
+    }
+
+    @Test
+    void create_requiresLogin()
+    {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("roomId", r1.getId(), "checkIn", DAY.toString(), "checkOut", DAY.plusDays(1).toString()))
+                .when().post("/bookings")
+                .then().statusCode(401);
+    }
+
+    @Test
+    void delete_alreadyGoneIs404()
+    {
+        int id = book(r1, DAY, DAY.plusDays(1)).statusCode(201).extract().path("id");
+
+        given().auth().oauth2(token).when().delete("/bookings/" + id).then().statusCode(204);
+        given().auth().oauth2(token).when().delete("/bookings/" + id).then().statusCode(404);
+    }
+
+    @Test
+    void delete_freesTheRoom()
+    {
+        int id = book(r1, DAY, DAY.plusDays(3)).statusCode(201).extract().path("id");
+
+        given().auth().oauth2(token).when().delete("/bookings/" + id).then().statusCode(204);
+        book(r1, DAY, DAY.plusDays(3)).statusCode(201);
+    }
+
+    @Test
+    void availability_leavesOutBookedRooms()
+    {
+        book(r1, DAY, DAY.plusDays(3)).statusCode(201);
+
+        availability(DAY.plusDays(1), DAY.plusDays(2)).statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].roomNumber", equalTo("102"));
+        availability(DAY.plusDays(3), DAY.plusDays(4)).statusCode(200)
+                .body("roomNumber", containsInAnyOrder("101", "102"));
+    }
+
+    @Test
+    void availability_invalidDates()
+    {
+        availability(DAY.plusDays(2), DAY).statusCode(400);
+        given().when().get("/hotel/" + t1.getId() + "/availability?checkIn=" + DAY).then().statusCode(400);
+    }
+
+    private ValidatableResponse book(Room room, LocalDate checkIn, LocalDate checkOut)
+    {
+        return given().auth().oauth2(token)
+                .contentType(ContentType.JSON)
+                .body(Map.of("roomId", room.getId(), "checkIn", checkIn.toString(), "checkOut", checkOut.toString()))
+                .when().post("/bookings")
+                .then();
+    }
+
+    private ValidatableResponse availability(LocalDate checkIn, LocalDate checkOut)
+    {
+        return given().when()
+                .get("/hotel/" + t1.getId() + "/availability?checkIn=" + checkIn + "&checkOut=" + checkOut)
+                .then();
+    }
+}
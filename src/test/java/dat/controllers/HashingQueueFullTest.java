@@ -0,0 +1,85 @@
+package dat.controllers;
+
+import dat.config.AppSettings;
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.dao.SecurityDAO;
+import dat.security.HashingExecutor;
+import dat.security.LoginThrottle;
+import dat.security.TokenCache;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static io.javalin.apibuilder.ApiBuilder.post;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+// Login and register with a hashing executor whose only worker is blocked and whose queue is full, so every
+// request to it is rejected and answered with 503 at once
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class HashingQueueFullTest
+{
+    private final HashingExecutor hashingExecutor = new HashingExecutor(1, 1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeAll
+    void setUpAll()
+    {
+        SecurityController securityController = new SecurityController(new SecurityDAO(HibernateConfig.getEntityManagerFactoryForTest()),
+                new TokenCache(100, Duration.ofMinutes(1)), AppSettings::getInstance, hashingExecutor, new LoginThrottle(100, 100, 60_000));
+        ApplicationConfig
+                .getInstance()
+                .initiateServer()
+                .setRoute(() -> {
+                    post("/auth/login", securityController::login);
+                    post("/auth/register", securityController::register);
+                })
+                .handleException()
+                .setApiExceptionHandling()
+                .startServer(7082);
+        RestAssured.baseURI = "http://localhost:7082/api";
+
+        hashingExecutor.submit(() -> {
+            release.await();
+            return null;
+        });
+        hashingExecutor.submit(() -> null);
+    }
+
+    @AfterAll
+    void tearDownAll()
+    {
+        release.countDown();
+        ApplicationConfig.getInstance().stopServer();
+    }
+
+    @Test
+    void login_fullQueueGets503WithRetryAfter()
+    {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("username", "someone", "password", "secret"))
+                .when().post("/auth/login")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", equalTo("1"));
+    }
+
+    @Test
+    void register_fullQueueGets503WithRetryAfter()
+    {
+        given().contentType(ContentType.JSON)
+                .body(Map.of("username", "someone", "password", "secret"))
+                .when().post("/auth/register")
+                .then()
+                .statusCode(503)
+                .header("Retry-After", equalTo("1"));
+        assertThat(hashingExecutor.getStats().get("rejected").longValue(), greaterThanOrEqualTo(1L));
+    }
+}
@@ -0,0 +1,78 @@
+package dat.controllers;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+
+// The hotel endpoints with ASYNC_ENDPOINTS_ENABLED, answered through ctx.future()
+class HotelAsyncResourceTest extends HotelResourceTestBase
+{
+    @BeforeAll
+    void setUpAll()
+    {
+        startServer(7077, true);
+    }
+
+    @Test
+    void getAll()
+    {
+        given().when().get("/hotel").then().statusCode(200).body("size()", equalTo(2));
+    }
+
+    @Test
+    void getById()
+    {
+        given().when().get("/hotel/" + t1.getId()).then().statusCode(200)
+                .body("id", equalTo(t1.getId().intValue()));
+    }
+
+    @Test
+    void getById_notFound()
+    {
+        given().when().get("/hotel/999999").then().statusCode(404);
+    }
+
+    @Test
+    void create()
+    {
+        given().when()
+                .contentType("application/json")
+                .body("{\"name\": \"Async Hotel\", \"address\": \"Somewhere 1\"}")
+                .post("/hotel")
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("Async Hotel"));
+    }
+
+    @Test
+    void update_ifMatch()
+    {
+        String etag = given().when().get("/hotel/" + t2.getId()).then().statusCode(200).extract().header("ETag");
+
+        given().when()
+                .contentType("application/json")
+                .header("If-Match", etag)
+                .body("{\"name\": \"First\"}")
+                .put("/hotel/" + t2.getId())
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("First"));
+
+        given().when()
+                .contentType("application/json")
+                .header("If-Match", etag)
+                .body("{\"name\": \"Second\"}")
+                .put("/hotel/" + t2.getId())
+                .then()
+                .statusCode(412);
+    }
+
+    @Test
+    void delete()
+    {
+        given().when().delete("/hotel/" + t2.getId()).then().statusCode(204);
+        given().when().get("/hotel/" + t2.getId()).then().statusCode(404);
+    }
+}
@@ -1,77 +1,94 @@
 package dat.controllers;
 
-import dat.config.ApplicationConfig;
-import dat.config.HibernateConfig;
 import dat.dto.HotelDTO;
 import dat.entities.Hotel;
 import dat.entities.Room;
-import dat.routes.Routes;
-import io.restassured.RestAssured;
 import jakarta.persistence.EntityManager;
-import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.testcontainers.shaded.com.fasterxml.jackson.core.JsonProcessingException;
 import org.testcontainers.shaded.com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.MatcherAssert.assertThat;
 
-@TestInstance(TestInstance.Lifecycle.PER_CLASS)
-class HotelResourceTest
+class HotelResourceTest extends HotelResourceTestBase
 {
-
-    private static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
     final ObjectMapper objectMapper = new ObjectMapper();
-    Hotel t1, t2;
-    final Logger logger = LoggerFactory.getLogger(HotelResourceTest.class.getName());
-
 
     @BeforeAll
-    static void setUpAll()
+    void setUpAll()
+    {
+        startServer(7078, false);
+    }
+
+    @Test
+    void getAll()
+    {
+        given().when().get("/hotel").then().statusCode(200).body("size()", equalTo(2));
+    }
+
+    @Test
+    void getAll_serverTiming()
+    {
+        String serverTiming = given().when().get("/hotel").then().statusCode(200)
+                .header("Server-Timing", containsString("db;dur="))
+                .extract().header("Server-Timing");
+        Matcher json = Pattern.compile("json;dur=([0-9.]+)").matcher(serverTiming);
+        assertTrue(json.find());
+        assertThat(Double.parseDouble(json.group(1)), greaterThan(0.0));
+    }
+
+    @Test
+    void getAll_paged()
+    {
+        given().when().get("/hotel?limit=1").then().statusCode(200)
+                .header("X-Next-Cursor", equalTo(t1.getId().toString()))
+                .body("size()", equalTo(1))
+                .body("[0].id", equalTo(t1.getId().intValue()));
+        given().when().get("/hotel?limit=1&after=" + t1.getId()).then().statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].id", equalTo(t2.getId().intValue()));
+    }
+
+    @Test
+    void getAll_streamed()
     {
-        HotelController hotelController = new HotelController(emf);
-        SecurityController securityController = new SecurityController(emf);
-        Routes routes = new Routes(hotelController, securityController);
-        ApplicationConfig
-                .getInstance()
-                .initiateServer()
-                .setRoute(routes.getRoutes())
-                .handleException()
-                .setApiExceptionHandling()
-                .checkSecurityRoles()
-                .startServer(7078);
-        RestAssured.baseURI = "http://localhost:7078/api";
+        given().when().get("/hotel?stream=true").then().statusCode(200).body("size()", equalTo(2));
     }
 
-    @BeforeEach
-    void setUp()
+    @Test
+    void searchRooms()
     {
         try (EntityManager em = emf.createEntityManager())
         {
-            //TestEntity[] entities = EntityPopulator.populate(genericDAO);
-            t1 = new Hotel("TestEntityA");
-            t2 = new Hotel("TestEntityB");
             em.getTransaction().begin();
-            em.createQuery("DELETE FROM Room ").executeUpdate();
-            em.createQuery("DELETE FROM Hotel ").executeUpdate();
-
-            em.persist(t1);
-            em.persist(t2);
+            Hotel hotel = em.find(Hotel.class, t1.getId());
+            Room cheap = new Room("101");
+            cheap.setPrice(500);
+            Room expensive = new Room("102");
+            expensive.setPrice(1500);
+            hotel.addRoom(cheap);
+            hotel.addRoom(expensive);
+            em.persist(cheap);
+            em.persist(expensive);
             em.getTransaction().commit();
         }
-        catch (Exception e)
-        {
-            logger.error("Error setting up test", e);
-        }
+        given().when().get("/rooms?hotelId=" + t1.getId() + "&maxPrice=1000").then().statusCode(200)
+                .body("size()", equalTo(1))
+                .body("[0].roomNumber", equalTo("101"));
     }
 
     @Test
-    void getAll()
+    void searchRooms_invalidRange()
     {
-        given().when().get("/hotel").then().statusCode(200).body("size()", equalTo(2));
+        given().when().get("/rooms?minPrice=1000&maxPrice=500").then().statusCode(400);
     }
 
     @Test
@@ -80,6 +97,29 @@ class HotelResourceTest
         given().when().get("/hotel/" + t2.getId()).then().statusCode(200).body("id", equalTo(t2.getId().intValue()));
     }
 
+    @Test
+    void getById_notModified()
+    {
+        String etag = given().when().get("/hotel/" + t2.getId()).then().statusCode(200).extract().header("ETag");
+        given().header("If-None-Match", etag).when().get("/hotel/" + t2.getId()).then().statusCode(304);
+        given().header("If-None-Match", "\"0-v0\"").when().get("/hotel/" + t2.getId()).then().statusCode(200);
+    }
+
+    @Test
+    void getAll_notModifiedUntilChanged()
+    {
+        String etag = given().when().get("/hotel").then().statusCode(200).extract().header("ETag");
+        given().header("If-None-Match", etag).when().get("/hotel").then().statusCode(304);
+
+        given().when()
+                .contentType("application/json")
+                .body("{\"name\": \"Changed\"}")
+                .put("/hotel/" + t1.getId())
+                .then()
+                .statusCode(200);
+        given().header("If-None-Match", etag).when().get("/hotel").then().statusCode(200);
+    }
+
     @Test
     void create()
     {
@@ -107,6 +147,57 @@ class HotelResourceTest
         }
     }
 
+    @Test
+    void createBulk_ndjson()
+    {
+        String body = """
+                {"name": "Bulk A", "address": "Street 1"}
+                {"address": "No name"}
+                {"name": "Bulk B", "address": "Street 2"}
+                """;
+        given().when()
+                .contentType("application/x-ndjson")
+                .body(body)
+                .post("/hotel/bulk")
+                .then()
+                .statusCode(200)
+                .body("accepted", equalTo(2))
+                .body("rejected", equalTo(1))
+                .body("errors[0].index", equalTo(1))
+                .body("errors[0].line", equalTo(2));
+    }
+
+    @Test
+    void createBulk_arrayReportsIndexAndColumn()
+    {
+        String body = "[{\"name\": \"Bulk A\"}, {\"address\": \"No name\"}]";
+        given().when()
+                .contentType("application/json")
+                .body(body)
+                .post("/hotel/bulk")
+                .then()
+                .statusCode(200)
+                .body("rejected", equalTo(1))
+                .body("errors[0].index", equalTo(1))
+                .body("errors[0].line", equalTo(1))
+                .body("errors[0].column", equalTo(22));
+    }
+
+    @Test
+    void createBulk_array()
+    {
+        String body = "[{\"name\": \"Bulk A\"}, {\"name\": \"Bulk B\"}, {\"name\": \"Bulk C\"}]";
+        given().when()
+                .contentType("application/json")
+                .body(body)
+                .post("/hotel/bulk")
+                .then()
+                .statusCode(200)
+                .body("accepted", equalTo(3))
+                .body("rejected", equalTo(0));
+        given().when().get("/hotel").then().statusCode(200).body("size()", equalTo(5));
+    }
+
     @Test
     void update()
     {
@@ -129,6 +220,42 @@ class HotelResourceTest
         }
     }
 
+    @Test
+    void update_ifMatch()
+    {
+        String etag = given().when().get("/hotel/" + t1.getId()).then().statusCode(200).extract().header("ETag");
+
+        given().when()
+                .contentType("application/json")
+                .header("If-Match", etag)
+                .body("{\"name\": \"First\"}")
+                .put("/hotel/" + t1.getId())
+                .then()
+                .statusCode(200)
+                .body("name", equalTo("First"))
+                .body("address", equalTo(null));
+
+        // The same ETag is now stale, so a second writer is turned away instead of overwriting
+        given().when()
+                .contentType("application/json")
+                .header("If-Match", etag)
+                .body("{\"name\": \"Second\"}")
+                .put("/hotel/" + t1.getId())
+                .then()
+                .statusCode(412);
+    }
+
+    @Test
+    void update_notFound()
+    {
+        given().when()
+                .contentType("application/json")
+                .body("{\"name\": \"Nobody\"}")
+                .put("/hotel/999999")
+                .then()
+                .statusCode(404);
+    }
+
     @Test
     void delete()
     {
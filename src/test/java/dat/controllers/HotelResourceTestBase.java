@@ -0,0 +1,69 @@
+package dat.controllers;
+
+import dat.config.ApplicationConfig;
+import dat.config.HibernateConfig;
+import dat.dao.BookingDAO;
+import dat.dao.HotelCache;
+import dat.dao.HotelDAO;
+import dat.entities.Hotel;
+import dat.routes.Routes;
+import io.restassured.RestAssured;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.TestInstance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+
+// Server and data setup shared by the resource tests. Each subclass starts the API on its own port, with the
+// blocking or the async hotel handlers, and gets two hotels without rooms before every test.
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class HotelResourceTestBase
+{
+    protected static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
+    protected static final HotelCache hotelCache = new HotelCache(1000, Duration.ofMinutes(5));
+    protected Hotel t1, t2;
+    protected final Logger logger = LoggerFactory.getLogger(getClass().getName());
+
+    protected static void startServer(int port, boolean asyncEndpoints)
+    {
+        HotelDAO hotelDAO = new HotelDAO(emf, hotelCache);
+        SecurityController securityController = new SecurityController(emf);
+        Routes routes = new Routes(new HotelController(hotelDAO), new RoomController(emf),
+                new BookingController(new BookingDAO(emf), hotelDAO), securityController, new StatusController(emf), asyncEndpoints);
+        ApplicationConfig
+                .getInstance()
+                .initiateServer()
+                .setRoute(routes.getRoutes())
+                .handleException()
+                .setApiExceptionHandling()
+                .addServerTiming()
+                .checkSecurityRoles(securityController)
+                .startServer(port);
+        RestAssured.baseURI = "http://localhost:" + port + "/api";
+    }
+
+    @BeforeEach
+    void seedHotels()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            t1 = new Hotel("TestEntityA");
+            t2 = new Hotel("TestEntityB");
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Booking ").executeUpdate();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.persist(t1);
+            em.persist(t2);
+            em.getTransaction().commit();
+            hotelCache.invalidateAll(); // the rows were changed behind the DAO's back
+        }
+        catch (Exception e)
+        {
+            logger.error("Error setting up test", e);
+        }
+    }
+}
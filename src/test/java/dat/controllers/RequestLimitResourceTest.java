@@ -0,0 +1,117 @@
+package dat.controllers;
+
+import dat.config.AppSettings;
+import dat.config.ApplicationConfig;
+import dat.security.ConcurrencyLimiter;
+import dat.security.RateLimiter;
+import io.restassured.RestAssured;
+import org.junit.jupiter.api.*;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static io.javalin.apibuilder.ApiBuilder.get;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Runs limitRequests on a few stub routes, so no database is needed
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class RequestLimitResourceTest
+{
+    private static final ConcurrencyLimiter concurrencyLimiter = new ConcurrencyLimiter(2);
+    private static final RateLimiter rateLimiter = new RateLimiter(new AppSettings(Map.of(
+            "RATE_LIMIT_CAPACITY", "1000",
+            "RATE_LIMIT_PER_SECOND", "1000",
+            "RATE_LIMIT_AUTH_CAPACITY", "2",
+            "RATE_LIMIT_AUTH_PER_SECOND", "1")));
+
+    @BeforeAll
+    static void setUpAll()
+    {
+        ApplicationConfig
+                .getInstance()
+                .initiateServer()
+                .setRoute(() -> {
+                    get("/status/ok", ctx -> ctx.result("ok"));
+                    get("/status/fail", ctx -> {
+                        throw new IllegalStateException("Failed on purpose");
+                    });
+                    get("/status/async", ctx -> ctx.future(() -> CompletableFuture.supplyAsync(() -> "done").thenAccept(ctx::result)));
+                    get("/auth/ping", ctx -> ctx.result("pong"));
+                })
+                .handleException()
+                .setApiExceptionHandling()
+                .limitRequests(rateLimiter, concurrencyLimiter)
+                .startServer(7080);
+        RestAssured.baseURI = "http://localhost:7080/api";
+    }
+
+    @AfterAll
+    void tearDownAll()
+    {
+        ApplicationConfig.getInstance().stopServer();
+    }
+
+    @Test
+    void emptyBucket_gets429WithRetryAfter()
+    {
+        given().when().get("/auth/ping").then().statusCode(200);
+        given().when().get("/auth/ping").then().statusCode(200);
+        given().when().get("/auth/ping").then()
+                .statusCode(429)
+                .header("Retry-After", equalTo("1"));
+    }
+
+    @Test
+    void fullConcurrencyLimit_gets503()
+    {
+        // Arrange: take every permit, as if two slow requests were being handled
+        concurrencyLimiter.tryAcquire();
+        concurrencyLimiter.tryAcquire();
+        try
+        {
+            // Act & Assert
+            given().when().get("/status/ok").then()
+                    .statusCode(503)
+                    .header("Retry-After", equalTo("1"));
+        }
+        finally
+        {
+            concurrencyLimiter.release();
+            concurrencyLimiter.release();
+        }
+        given().when().get("/status/ok").then().statusCode(200);
+    }
+
+    @Test
+    void permitIsReleasedOnSuccess() throws InterruptedException
+    {
+        given().when().get("/status/ok").then().statusCode(200);
+        assertEquals(0, awaitInFlight());
+    }
+
+    @Test
+    void permitIsReleasedOnException() throws InterruptedException
+    {
+        given().when().get("/status/fail").then().statusCode(500);
+        assertEquals(0, awaitInFlight());
+    }
+
+    @Test
+    void permitIsReleasedOnAsyncCompletion() throws InterruptedException
+    {
+        given().when().get("/status/async").then().statusCode(200).body(equalTo("done"));
+        assertEquals(0, awaitInFlight());
+    }
+
+    // After handlers can still be running when the client has the response
+    private static int awaitInFlight() throws InterruptedException
+    {
+        for (int i = 0; i < 50 && concurrencyLimiter.getStats().get("inFlight").intValue() > 0; i++)
+        {
+            Thread.sleep(20);
+        }
+        return concurrencyLimiter.getStats().get("inFlight").intValue();
+    }
+}
@@ -4,6 +4,7 @@ import dat.config.ApplicationConfig;
 import dat.config.HibernateConfig;
 import dat.entities.UserAccount;
 import dat.enums.Roles;
+import dat.metrics.MetricsRegistry;
 import dat.routes.Routes;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
@@ -34,13 +35,15 @@ class SecurityControllerTest {
     static void setUpAll() {
         HotelController hotelController = new HotelController(emf);
         SecurityController securityController = new SecurityController(emf);
-        Routes routes = new Routes(hotelController, securityController);
+        StatusController statusController = new StatusController(emf);
+        Routes routes = new Routes(hotelController, new RoomController(emf), new BookingController(emf), securityController, statusController);
         ApplicationConfig
                 .getInstance()
                 .initiateServer()
                 .setRoute(routes.getRoutes())
                 .handleException()
                 .setApiExceptionHandling()
+                .recordMetrics(MetricsRegistry.getInstance())
                 .checkSecurityRoles()
                 .startServer(7079);
         RestAssured.baseURI = "http://localhost:7079/api";
@@ -129,6 +132,31 @@ class SecurityControllerTest {
             .body("message", containsString("Could not verify user"));
     }
 
+    @Test
+    void testLogin_ThrottledPerUsername() {
+        Map<String, String> loginRequest = new HashMap<>();
+        loginRequest.put("username", "bruteforced");
+        loginRequest.put("password", "guess");
+
+        for (int i = 0; i < 20; i++) {
+            given()
+                .contentType(ContentType.JSON)
+                .body(loginRequest)
+                .post("/auth/login")
+            .then()
+                .statusCode(401);
+        }
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(loginRequest)
+        .when()
+            .post("/auth/login")
+        .then()
+            .statusCode(429)
+            .header("Retry-After", notNullValue());
+    }
+
     @Test
     void testRegister_Success() {
         Map<String, String> registerRequest = new HashMap<>();
@@ -320,4 +348,87 @@ class SecurityControllerTest {
             .statusCode(200)
             .body("msg", equalTo("Hello from ADMIN Protected"));
     }
+
+    @Test
+    void testLogout_RevokesToken() {
+        Map<String, String> loginRequest = new HashMap<>();
+        loginRequest.put("username", TEST_USER);
+        loginRequest.put("password", TEST_PASSWORD);
+
+        Response loginResponse = given()
+            .contentType(ContentType.JSON)
+            .body(loginRequest)
+            .post("/auth/login");
+
+        String token = loginResponse.jsonPath().getString("token");
+
+        // The token is verified and cached before it is revoked
+        given()
+            .header("Authorization", "Bearer " + token)
+        .when()
+            .get("/protected/user_demo")
+        .then()
+            .statusCode(200);
+
+        given()
+            .header("Authorization", "Bearer " + token)
+        .when()
+            .post("/auth/logout")
+        .then()
+            .statusCode(200);
+
+        given()
+            .header("Authorization", "Bearer " + token)
+        .when()
+            .get("/protected/user_demo")
+        .then()
+            .statusCode(401);
+    }
+
+    @Test
+    void testMetrics_WithAdminRole() {
+        Map<String, String> loginRequest = new HashMap<>();
+        loginRequest.put("username", TEST_ADMIN);
+        loginRequest.put("password", TEST_PASSWORD);
+
+        String token = given()
+            .contentType(ContentType.JSON)
+            .body(loginRequest)
+            .post("/auth/login")
+            .jsonPath().getString("token");
+
+        given()
+            .header("Authorization", "Bearer " + token)
+        .when()
+            .get("/metrics")
+        .then()
+            .statusCode(200)
+            .contentType(containsString("text/plain"))
+            .body(containsString("http_requests_total{method=\"POST\""))
+            .body(containsString("auth/login"))
+            .body(containsString("jvm_memory_used_bytes"));
+    }
+
+    @Test
+    void testPoolStatus_WithAdminRole() {
+        Map<String, String> loginRequest = new HashMap<>();
+        loginRequest.put("username", TEST_ADMIN);
+        loginRequest.put("password", TEST_PASSWORD);
+
+        Response loginResponse = given()
+            .contentType(ContentType.JSON)
+            .body(loginRequest)
+            .post("/auth/login");
+
+        String token = loginResponse.jsonPath().getString("token");
+
+        given()
+            .header("Authorization", "Bearer " + token)
+        .when()
+            .get("/status/pool")
+        .then()
+            .statusCode(200)
+            .body("db.maxPoolSize", equalTo(10))
+            .body("db.total", greaterThan(0));
+    }
 }
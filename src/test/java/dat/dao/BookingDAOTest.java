@@ -0,0 +1,117 @@
+package dat.dao;
+
+import dat.config.HibernateConfig;
+import dat.dto.BookingDTO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.exceptions.BookingConflictException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class BookingDAOTest
+{
+    private static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
+    private static final BookingDAO bookingDAO = new BookingDAO(emf);
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+    private static Hotel h1;
+    private static Room r1;
+
+    @BeforeEach
+    void setUp()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            r1 = new Room("A101");
+            h1 = new Hotel("Hotel A");
+            h1.addRoom(r1);
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Booking ").executeUpdate();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.persist(h1);
+            em.getTransaction().commit();
+        }
+        catch (Exception e)
+        {
+            fail();
+        }
+    }
+
+    @Test
+    void createBooking()
+    {
+        // Act
+        BookingDTO result = bookingDAO.createBooking(r1.getId(), "guest", DAY, DAY.plusDays(3));
+
+        // Assert
+        assertThat(result.id(), notNullValue());
+        assertThat(result.hotelId(), is(h1.getId()));
+        assertThat(bookingDAO.getBooking(result.id()).checkOut(), is(DAY.plusDays(3)));
+    }
+
+    @Test
+    void createBooking_overlapping()
+    {
+        // Arrange
+        bookingDAO.createBooking(r1.getId(), "guest", DAY, DAY.plusDays(3));
+
+        // Act & Assert
+        assertThrows(BookingConflictException.class, () -> bookingDAO.createBooking(r1.getId(), "other", DAY.plusDays(2), DAY.plusDays(4)));
+    }
+
+    @Test
+    void createBooking_checkInOnCheckOutDay()
+    {
+        // Arrange
+        bookingDAO.createBooking(r1.getId(), "guest", DAY, DAY.plusDays(3));
+
+        // Act
+        bookingDAO.createBooking(r1.getId(), "other", DAY.plusDays(3), DAY.plusDays(5));
+
+        // Assert
+        assertThat(bookingDAO.getBookingsEndingAfter(LocalDate.now()).size(), is(2));
+    }
+
+    @Test
+    void createBooking_unknownRoom()
+    {
+        assertThrows(EntityNotFoundException.class, () -> bookingDAO.createBooking(r1.getId() + 1000, "guest", DAY, DAY.plusDays(1)));
+    }
+
+    @Test
+    void getBookingsForUser()
+    {
+        // Arrange
+        bookingDAO.createBooking(r1.getId(), "guest", DAY.plusDays(5), DAY.plusDays(6));
+        bookingDAO.createBooking(r1.getId(), "guest", DAY, DAY.plusDays(1));
+        bookingDAO.createBooking(r1.getId(), "other", DAY.plusDays(2), DAY.plusDays(3));
+
+        // Act
+        List<BookingDTO> result = bookingDAO.getBookingsForUser("guest");
+
+        // Assert
+        assertThat(result.stream().map(BookingDTO::checkIn).toList(), contains(DAY, DAY.plusDays(5)));
+    }
+
+    @Test
+    void deleteBooking_alreadyDeleted()
+    {
+        // Arrange
+        BookingDTO booking = bookingDAO.createBooking(r1.getId(), "guest", DAY, DAY.plusDays(1));
+        bookingDAO.deleteBooking(booking.id());
+
+        // Act & Assert
+        assertThrows(EntityNotFoundException.class, () -> bookingDAO.deleteBooking(booking.id()));
+    }
+}
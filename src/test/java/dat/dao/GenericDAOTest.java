@@ -7,7 +7,9 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.*;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -79,7 +81,7 @@ class GenericDAOTest
         try (EntityManager em = emf.createEntityManager())
         {
             Hotel found = em.find(Hotel.class, result.getId());
-            assertThat(found, samePropertyValuesAs(h3 ,"rooms"));
+            assertThat(found, samePropertyValuesAs(h3, "rooms", "version", "lastModified"));
             Long amountInDb = em.createQuery("SELECT COUNT(t) FROM Hotel t", Long.class).getSingleResult();
             assertThat(amountInDb, is(3L));
         }
@@ -98,8 +100,8 @@ class GenericDAOTest
         List<Hotel> result = genericDAO.create(testEntities);
 
         // Assert
-        assertThat(result.get(0), samePropertyValuesAs(t3, "rooms"));
-        assertThat(result.get(1), samePropertyValuesAs(t4, "rooms"));
+        assertThat(result.get(0), samePropertyValuesAs(t3, "rooms", "version", "lastModified"));
+        assertThat(result.get(1), samePropertyValuesAs(t4, "rooms", "version", "lastModified"));
         assertNotNull(result);
         try (EntityManager em = emf.createEntityManager())
         {
@@ -108,6 +110,31 @@ class GenericDAOTest
         }
     }
 
+    @Test
+    void createMany_moreThanOneBatch()
+    {
+        // Arrange
+        List<Hotel> testEntities = new ArrayList<>();
+        for (int i = 0; i < 120; i++)
+        {
+            Hotel hotel = new Hotel("Bulk " + i);
+            hotel.addRoom(new Room("R" + i));
+            testEntities.add(hotel);
+        }
+
+        // Act
+        genericDAO.create(testEntities);
+
+        // Assert
+        try (EntityManager em = emf.createEntityManager())
+        {
+            Long hotelsInDb = em.createQuery("SELECT COUNT(t) FROM Hotel t", Long.class).getSingleResult();
+            Long roomsInDb = em.createQuery("SELECT COUNT(r) FROM Room r WHERE r.hotel IS NOT NULL", Long.class).getSingleResult();
+            assertThat(hotelsInDb, is(122L));
+            assertThat(roomsInDb, is(124L));
+        }
+    }
+
     @Test
     void read()
     {
@@ -118,7 +145,7 @@ class GenericDAOTest
         Hotel result = genericDAO.getById(Hotel.class, h1.getId());
 
         // Assert
-        assertThat(result, samePropertyValuesAs(expected, "rooms"));
+        assertThat(result, samePropertyValuesAs(expected, "rooms", "version", "lastModified"));
         //assertThat(result.getRooms(), containsInAnyOrder(expected.getRooms().toArray()));
     }
 
@@ -147,8 +174,55 @@ class GenericDAOTest
         // Assert
         assertNotNull(result);
         assertThat(result.size(), is(2));
-        assertThat(result.get(0), samePropertyValuesAs(expected.get(0), "rooms"));
-        assertThat(result.get(1), samePropertyValuesAs(expected.get(1), "rooms"));
+        assertThat(result.get(0), samePropertyValuesAs(expected.get(0), "rooms", "version", "lastModified"));
+        assertThat(result.get(1), samePropertyValuesAs(expected.get(1), "rooms", "version", "lastModified"));
+    }
+
+    @Test
+    void exists()
+    {
+        // Act + Assert
+        assertTrue(genericDAO.exists(Hotel.class));
+
+        try (EntityManager em = emf.createEntityManager())
+        {
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.getTransaction().commit();
+        }
+        assertFalse(genericDAO.exists(Hotel.class));
+    }
+
+    @Test
+    void getPage()
+    {
+        // Act
+        List<Hotel> firstPage = genericDAO.getPage(Hotel.class, null, 1);
+        List<Hotel> secondPage = genericDAO.getPage(Hotel.class, firstPage.get(0).getId(), 1);
+        List<Hotel> lastPage = genericDAO.getPage(Hotel.class, secondPage.get(0).getId(), 1);
+
+        // Assert
+        assertThat(firstPage.size(), is(1));
+        assertThat(firstPage.get(0), samePropertyValuesAs(h1, "rooms", "version", "lastModified"));
+        assertThat(secondPage.get(0), samePropertyValuesAs(h2, "rooms", "version", "lastModified"));
+        assertThat(lastPage, empty());
+    }
+
+    @Test
+    void streamAll()
+    {
+        // Act
+        List<Hotel> result;
+        try (Stream<Hotel> stream = genericDAO.streamAll(Hotel.class))
+        {
+            result = stream.toList();
+        }
+
+        // Assert
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0), samePropertyValuesAs(h1, "rooms", "version", "lastModified"));
+        assertThat(result.get(1), samePropertyValuesAs(h2, "rooms", "version", "lastModified"));
     }
 
     @Test
@@ -161,7 +235,8 @@ class GenericDAOTest
         Hotel result = genericDAO.update(h1);
 
         // Assert
-        assertThat(result, samePropertyValuesAs(h1, "rooms"));
+        assertThat(result, samePropertyValuesAs(h1, "rooms", "version", "lastModified"));
+        assertThat(result.getVersion(), is(h1.getVersion() + 1));
         //assertThat(result.getRooms(), containsInAnyOrder(h1.getRooms()));
 
     }
@@ -180,8 +255,8 @@ class GenericDAOTest
         // Assert
         assertNotNull(result);
         assertThat(result.size(), is(2));
-        assertThat(result.get(0), samePropertyValuesAs(h1, "rooms"));
-        assertThat(result.get(1), samePropertyValuesAs(h2, "rooms"));
+        assertThat(result.get(0), samePropertyValuesAs(h1, "rooms", "version", "lastModified"));
+        assertThat(result.get(1), samePropertyValuesAs(h2, "rooms", "version", "lastModified"));
     }
 
     @Test
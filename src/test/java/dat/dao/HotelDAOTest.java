@@ -0,0 +1,174 @@
+package dat.dao;
+
+import dat.config.HibernateConfig;
+import dat.dto.HotelDTO;
+import dat.dto.RoomDTO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.exceptions.DaoException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotelDAOTest
+{
+    private static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
+    private static final HotelCache hotelCache = new HotelCache(1000, Duration.ofMinutes(5));
+    private static final HotelDAO hotelDAO = new HotelDAO(emf, hotelCache);
+    private static Hotel h1, h2;
+    private static Room r1, r2, r3;
+
+    @BeforeEach
+    void setUp()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            r1 = new Room("A101");
+            r2 = new Room("A102");
+            r3 = new Room("B101");
+            h1 = new Hotel("Hotel A");
+            h2 = new Hotel("Hotel B");
+            h1.addRoom(r1);
+            h1.addRoom(r2);
+            h2.addRoom(r3);
+            em.getTransaction().begin();
+                em.createQuery("DELETE FROM Room ").executeUpdate();
+                em.createQuery("DELETE FROM Hotel ").executeUpdate();
+                em.persist(h1);
+                em.persist(h2);
+            em.getTransaction().commit();
+            hotelCache.invalidateAll();
+        }
+        catch (Exception e)
+        {
+            fail();
+        }
+    }
+
+    @Test
+    void getHotelById_doesNotLoadRooms()
+    {
+        // Act
+        Hotel result = hotelDAO.getHotelById(h1.getId());
+
+        // Assert
+        assertThat(result.getName(), is("Hotel A"));
+        assertFalse(Hibernate.isInitialized(result.getRooms()));
+    }
+
+    @Test
+    void getHotelWithRooms()
+    {
+        // Act
+        Hotel result = hotelDAO.getHotelWithRooms(h1.getId());
+
+        // Assert
+        assertTrue(Hibernate.isInitialized(result.getRooms()));
+        assertThat(result.getRooms().stream().map(Room::getRoomNumber).toList(), containsInAnyOrder("A101", "A102"));
+    }
+
+    @Test
+    void getHotelDto()
+    {
+        // Act
+        HotelDTO result = hotelDAO.getHotelDto(h1.getId());
+
+        // Assert
+        assertThat(result.getName(), is("Hotel A"));
+        assertThat(result.getVersion(), is(h1.getVersion()));
+        assertThat(result.getRooms(), is(empty()));
+    }
+
+    @Test
+    void getRoomDtos()
+    {
+        // Act
+        List<RoomDTO> result = hotelDAO.getRoomDtos(h1.getId());
+
+        // Assert
+        assertThat(result.stream().map(RoomDTO::getRoomNumber).toList(), contains("A101", "A102"));
+        assertThat(result.get(0).getHotelId(), is(h1.getId()));
+    }
+
+    @Test
+    void getRoomDtos_unknownHotel()
+    {
+        assertThrows(DaoException.class, () -> hotelDAO.getRoomDtos(-1L));
+    }
+
+    @Test
+    void getHotelDto_isCachedUntilUpdated()
+    {
+        // Act
+        HotelDTO first = hotelDAO.getHotelDto(h1.getId());
+        HotelDTO second = hotelDAO.getHotelDto(h1.getId());
+        Hotel toUpdate = hotelDAO.getHotelById(h1.getId());
+        toUpdate.setName("Renamed");
+        hotelDAO.updateHotel(toUpdate);
+        HotelDTO afterUpdate = hotelDAO.getHotelDto(h1.getId());
+
+        // Assert
+        assertSame(first, second);
+        assertThat(hotelCache.getHotelStats().get("hits").longValue(), greaterThanOrEqualTo(1L));
+        assertThat(afterUpdate.getName(), is("Renamed"));
+    }
+
+    @Test
+    void getHotelDtosAfter()
+    {
+        // Act
+        List<HotelDTO> result = hotelDAO.getHotelDtosAfter(h1.getId(), 10);
+
+        // Assert
+        assertThat(result.stream().map(HotelDTO::getName).toList(), contains("Hotel B"));
+    }
+
+    @Test
+    void getAllHotels_withRooms()
+    {
+        // Act
+        List<Hotel> result = hotelDAO.getAllHotels(false);
+
+        // Assert
+        assertThat(result.size(), is(2));
+        assertThat(result.get(0).getRooms().size(), is(2));
+        assertThat(result.get(1).getRooms().size(), is(1));
+    }
+
+    @Test
+    void getRoomsForHotel()
+    {
+        // Act
+        List<Room> result = hotelDAO.getRoomsForHotel(h2);
+
+        // Assert
+        assertThat(result.size(), is(1));
+        assertThat(result.get(0).getRoomNumber(), is("B101"));
+    }
+
+    @Test
+    void createHotel_withRooms()
+    {
+        // Arrange
+        Hotel hotel = new Hotel(new HotelDTO(null, "Hotel C", "Street 1", List.of(
+                new RoomDTO(null, null, "C101", 500),
+                new RoomDTO(null, null, "C102", 600))));
+
+        // Act
+        Hotel result = hotelDAO.createHotel(hotel);
+
+        // Assert
+        assertNotNull(result.getId());
+        List<Room> rooms = hotelDAO.getRoomsForHotel(result);
+        assertThat(rooms.stream().map(Room::getRoomNumber).toList(), contains("C101", "C102"));
+    }
+}
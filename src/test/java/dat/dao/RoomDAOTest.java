@@ -0,0 +1,86 @@
+package dat.dao;
+
+import dat.config.HibernateConfig;
+import dat.dto.RoomDTO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.enums.RoomSort;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class RoomDAOTest
+{
+    private static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
+    private static final RoomDAO roomDAO = new RoomDAO(emf);
+    private static Hotel h1, h2;
+
+    @BeforeEach
+    void setUp()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            h1 = new Hotel("Hotel A");
+            h2 = new Hotel("Hotel B");
+            h1.addRoom(room("A101", 900));
+            h1.addRoom(room("A102", 500));
+            h1.addRoom(room("A103", 1500));
+            h2.addRoom(room("B101", 700));
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.persist(h1);
+            em.persist(h2);
+            em.getTransaction().commit();
+        }
+        catch (Exception e)
+        {
+            fail();
+        }
+    }
+
+    private static Room room(String roomNumber, double price)
+    {
+        Room room = new Room(roomNumber);
+        room.setPrice(price);
+        return room;
+    }
+
+    @Test
+    void searchRooms_priceRangeSortedByPrice()
+    {
+        // Act
+        List<RoomDTO> result = roomDAO.searchRooms(600.0, 1000.0, null, RoomSort.PRICE, 100);
+
+        // Assert
+        assertThat(result.stream().map(RoomDTO::getRoomNumber).toList(), contains("B101", "A101"));
+        assertThat(result.get(0).getHotelId(), is(h2.getId()));
+    }
+
+    @Test
+    void searchRooms_inHotel()
+    {
+        // Act
+        List<RoomDTO> result = roomDAO.searchRooms(null, null, h1.getId(), RoomSort.PRICE, 100);
+
+        // Assert
+        assertThat(result.stream().map(RoomDTO::getPrice).toList(), contains(500.0, 900.0, 1500.0));
+    }
+
+    @Test
+    void searchRooms_limit()
+    {
+        // Act
+        List<RoomDTO> result = roomDAO.searchRooms(null, null, null, RoomSort.PRICE, 2);
+
+        // Assert
+        assertThat(result.stream().map(RoomDTO::getRoomNumber).toList(), contains("A102", "B101"));
+    }
+}
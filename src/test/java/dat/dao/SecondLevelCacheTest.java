@@ -0,0 +1,109 @@
+package dat.dao;
+
+import dat.config.HibernateConfig;
+import dat.entities.Hotel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The test EntityManagerFactory runs without the second-level cache, so this one turns it on, as in production,
+// against a database of its own
+class SecondLevelCacheTest
+{
+    private static final EntityManagerFactory emf = HibernateConfig.createEntityManagerFactory(cacheProperties());
+    private static final Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+    private static final HotelDAO hotelDAO = new HotelDAO(emf, new HotelCache(1000, Duration.ofMinutes(5)));
+    private Hotel hotel;
+
+    private static Properties cacheProperties()
+    {
+        Properties props = new Properties();
+        props.put("hibernate.connection.driver_class", "org.testcontainers.jdbc.ContainerDatabaseDriver");
+        props.put("hibernate.connection.url", "jdbc:tc:postgresql:16.2:///cache_test_db");
+        props.put("hibernate.hbm2ddl.auto", "create-drop");
+        props.put("hibernate.cache.use_second_level_cache", "true");
+        props.put("hibernate.cache.use_query_cache", "true");
+        props.put("hibernate.cache.region.factory_class", "jcache");
+        props.put("hibernate.javax.cache.provider", "com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider");
+        props.put("hibernate.javax.cache.missing_cache_strategy", "create");
+        props.put("jakarta.persistence.sharedCache.mode", "ENABLE_SELECTIVE");
+        return props;
+    }
+
+    @BeforeEach
+    void setUp()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            hotel = new Hotel("Cached Hotel", "Cache Street 1");
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.persist(hotel);
+            em.getTransaction().commit();
+        }
+        emf.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @AfterAll
+    static void tearDownAll()
+    {
+        emf.close();
+    }
+
+    @Test
+    void secondReadIsACacheHit()
+    {
+        // Act
+        Hotel first = find(hotel.getId());
+        long missesAfterFirst = statistics.getSecondLevelCacheMissCount();
+        Hotel second = find(hotel.getId());
+
+        // Assert
+        assertThat(first.getName(), is("Cached Hotel"));
+        assertThat(second.getName(), is("Cached Hotel"));
+        assertThat(missesAfterFirst, is(1L));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(1L));
+        assertThat(statistics.getSecondLevelCacheMissCount(), is(1L));
+        assertTrue(emf.getCache().contains(Hotel.class, hotel.getId()));
+    }
+
+    @Test
+    void writeEvictsTheEntry()
+    {
+        // Arrange
+        find(hotel.getId());
+        assertTrue(emf.getCache().contains(Hotel.class, hotel.getId()));
+
+        // Act: the same single UPDATE that PUT /hotel/{id} runs
+        hotelDAO.updateHotelDetails(hotel.getId(), "Renamed", null, null);
+
+        // Assert
+        assertFalse(emf.getCache().contains(Hotel.class, hotel.getId()));
+        statistics.clear();
+        assertThat(find(hotel.getId()).getName(), is("Renamed"));
+        assertThat(statistics.getSecondLevelCacheHitCount(), is(0L));
+        assertThat(statistics.getSecondLevelCacheMissCount(), is(1L));
+    }
+
+    private static Hotel find(Long id)
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            return em.find(Hotel.class, id);
+        }
+    }
+}
@@ -78,6 +78,31 @@ class SecurityDAOTest {
         assertTrue(exception.getMessage().contains("Error reading object from db"));
     }
 
+    @Test
+    void testGetVerifiedUser_RehashesWithConfiguredCost() throws Exception {
+        // Arrange
+        SecurityDAO cheaperDAO = new SecurityDAO(emf, 4);
+        assertEquals(10, testUserAccount.getPasswordCost());
+
+        // Act
+        UserDTO result = cheaperDAO.getVerifiedUser("testuser", "password123");
+
+        // Assert: the rehash happens in the background, so wait for it
+        assertNotNull(result);
+        UserAccount rehashed = null;
+        for (int i = 0; i < 50; i++) {
+            try (EntityManager em = emf.createEntityManager()) {
+                rehashed = em.find(UserAccount.class, "testuser");
+            }
+            if (rehashed.getPasswordCost() == 4) {
+                break;
+            }
+            Thread.sleep(100);
+        }
+        assertEquals(4, rehashed.getPasswordCost());
+        assertTrue(rehashed.verifyPassword("password123"));
+    }
+
     @Test
     void testCreateUser_Success() {
         // Arrange
@@ -0,0 +1,40 @@
+package dat.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConcurrencyLimiterTest
+{
+    @Test
+    void tryAcquire_shedsAboveTheLimit()
+    {
+        // Arrange
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+
+        // Act & Assert
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertThat(limiter.getStats().get("inFlight").intValue(), is(2));
+        assertThat(limiter.getStats().get("shed").longValue(), is(1L));
+    }
+
+    @Test
+    void release_makesRoomAgain()
+    {
+        // Arrange
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        assertTrue(limiter.tryAcquire());
+
+        // Act
+        limiter.release();
+
+        // Assert
+        assertTrue(limiter.tryAcquire());
+        assertThat(limiter.getStats().get("inFlight").intValue(), is(1));
+    }
+}
@@ -0,0 +1,89 @@
+package dat.security;
+
+import dat.config.AppSettings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class RateLimiterTest
+{
+    private static RateLimiter limiter(int capacity, int perSecond)
+    {
+        return new RateLimiter(new AppSettings(Map.of(
+                "RATE_LIMIT_CAPACITY", String.valueOf(capacity),
+                "RATE_LIMIT_PER_SECOND", String.valueOf(perSecond))));
+    }
+
+    @Test
+    void tryAcquire_allowsBurstUpToCapacity()
+    {
+        // Arrange
+        RateLimiter limiter = limiter(3, 1);
+
+        // Act & Assert
+        for (int i = 0; i < 3; i++)
+        {
+            assertThat(limiter.tryAcquire("client", "hotel"), is(0L));
+        }
+        assertThat(limiter.tryAcquire("client", "hotel"), greaterThanOrEqualTo(1L));
+        assertThat(limiter.getStats().get("limited").longValue(), is(1L));
+    }
+
+    @Test
+    void tryAcquire_refillsOverTime() throws InterruptedException
+    {
+        // Arrange
+        RateLimiter limiter = limiter(1, 20);
+        assertThat(limiter.tryAcquire("client", "hotel"), is(0L));
+        assertThat(limiter.tryAcquire("client", "hotel"), greaterThan(0L));
+
+        // Act: 20 per second is one token every 50 ms
+        Thread.sleep(120);
+
+        // Assert
+        assertThat(limiter.tryAcquire("client", "hotel"), is(0L));
+    }
+
+    @Test
+    void tryAcquire_keepsClientsAndGroupsApart()
+    {
+        // Arrange
+        RateLimiter limiter = limiter(1, 1);
+        limiter.tryAcquire("client", "hotel");
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire("client", "hotel"), greaterThan(0L));
+        assertThat(limiter.tryAcquire("other-client", "hotel"), is(0L));
+        assertThat(limiter.tryAcquire("client", "rooms"), is(0L));
+    }
+
+    @Test
+    void tryAcquire_unknownGroupsShareOneBucket()
+    {
+        // Arrange
+        RateLimiter limiter = limiter(1, 1);
+        limiter.tryAcquire("client", "made-up-1");
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire("client", "made-up-2"), greaterThan(0L));
+        assertThat(limiter.getStats().get("trackedClients").longValue(), is(1L));
+    }
+
+    @Test
+    void tryAcquire_usesLimitsPerGroup()
+    {
+        // Arrange
+        RateLimiter limiter = new RateLimiter(new AppSettings(Map.of(
+                "RATE_LIMIT_CAPACITY", "100",
+                "RATE_LIMIT_PER_SECOND", "1",
+                "RATE_LIMIT_AUTH_CAPACITY", "1")));
+        limiter.tryAcquire("client", "auth");
+
+        // Act & Assert
+        assertThat(limiter.tryAcquire("client", "auth"), greaterThan(0L));
+        assertThat(limiter.tryAcquire("client", "hotel"), is(0L));
+    }
+}
@@ -0,0 +1,153 @@
+package dat.services;
+
+import dat.config.HibernateConfig;
+import dat.dao.BookingDAO;
+import dat.dao.HotelCache;
+import dat.dao.HotelDAO;
+import dat.dto.BookingDTO;
+import dat.dto.RoomDTO;
+import dat.entities.Hotel;
+import dat.entities.Room;
+import dat.exceptions.BookingConflictException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class AvailabilityServiceTest
+{
+    private static final EntityManagerFactory emf = HibernateConfig.getEntityManagerFactoryForTest();
+    private static final HotelCache hotelCache = new HotelCache(1000, Duration.ofMinutes(5));
+    private static final BookingDAO bookingDAO = new BookingDAO(emf);
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+    private AvailabilityService availability;
+    private static Hotel h1;
+    private static Room r1, r2;
+
+    @BeforeEach
+    void setUp()
+    {
+        try (EntityManager em = emf.createEntityManager())
+        {
+            r1 = new Room("A101");
+            r2 = new Room("A102");
+            h1 = new Hotel("Hotel A");
+            h1.addRoom(r1);
+            h1.addRoom(r2);
+            em.getTransaction().begin();
+            em.createQuery("DELETE FROM Booking ").executeUpdate();
+            em.createQuery("DELETE FROM Room ").executeUpdate();
+            em.createQuery("DELETE FROM Hotel ").executeUpdate();
+            em.persist(h1);
+            em.getTransaction().commit();
+            hotelCache.invalidateAll();
+        }
+        catch (Exception e)
+        {
+            fail();
+        }
+        availability = new AvailabilityService(bookingDAO, new HotelDAO(emf, hotelCache));
+        availability.rebuild();
+    }
+
+    private List<String> freeRoomNumbers(LocalDate checkIn, LocalDate checkOut)
+    {
+        return availability.getFreeRooms(h1.getId(), checkIn, checkOut).stream().map(RoomDTO::getRoomNumber).toList();
+    }
+
+    @Test
+    void getFreeRooms_leavesOutBookedRooms()
+    {
+        // Act
+        availability.reserve(r1.getId(), "guest", DAY, DAY.plusDays(3));
+
+        // Assert
+        assertThat(freeRoomNumbers(DAY.plusDays(1), DAY.plusDays(2)), contains("A102"));
+        assertThat(freeRoomNumbers(DAY.plusDays(3), DAY.plusDays(4)), contains("A101", "A102"));
+    }
+
+    @Test
+    void rebuild_readsBookingsFromDb()
+    {
+        // Arrange
+        bookingDAO.createBooking(r2.getId(), "guest", DAY, DAY.plusDays(2));
+
+        // Act
+        availability.rebuild();
+
+        // Assert
+        assertThat(freeRoomNumbers(DAY, DAY.plusDays(1)), contains("A101"));
+    }
+
+    @Test
+    void cancel_freesTheNights()
+    {
+        // Arrange
+        BookingDTO booking = availability.reserve(r1.getId(), "guest", DAY, DAY.plusDays(3));
+
+        // Act
+        availability.cancel(booking);
+
+        // Assert
+        assertThat(freeRoomNumbers(DAY, DAY.plusDays(3)), contains("A101", "A102"));
+        availability.reserve(r1.getId(), "other", DAY, DAY.plusDays(3));
+    }
+
+    @Test
+    void reserve_rejectsInvalidDates()
+    {
+        assertThrows(IllegalArgumentException.class, () -> availability.reserve(r1.getId(), "guest", DAY, DAY));
+        assertThrows(IllegalArgumentException.class, () -> availability.reserve(r1.getId(), "guest", LocalDate.now().minusDays(1), DAY));
+    }
+
+    @Test
+    void reserve_concurrentRequestsForSameNights() throws Exception
+    {
+        // Arrange
+        int guests = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(guests);
+        List<Callable<BookingDTO>> requests = new ArrayList<>();
+        for (int i = 0; i < guests; i++)
+        {
+            String guest = "guest" + i;
+            requests.add(() -> availability.reserve(r1.getId(), guest, DAY.plusDays(1), DAY.plusDays(4)));
+        }
+
+        // Act
+        int booked = 0;
+        int conflicts = 0;
+        for (Future<BookingDTO> result : executor.invokeAll(requests))
+        {
+            try
+            {
+                result.get();
+                booked++;
+            }
+            catch (Exception e)
+            {
+                assertThat(e.getCause(), instanceOf(BookingConflictException.class));
+                conflicts++;
+            }
+        }
+        executor.shutdown();
+
+        // Assert
+        assertThat(booked, is(1));
+        assertThat(conflicts, is(guests - 1));
+        assertThat(bookingDAO.getBookingsEndingAfter(LocalDate.now()).size(), is(1));
+    }
+}